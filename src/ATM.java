@@ -2,18 +2,34 @@ package atmmachine;
 
 import atmmachine.components.CardReader;
 import atmmachine.components.CashDispenser;
+import atmmachine.components.Clock;
+import atmmachine.components.Console;
 import atmmachine.components.DepositSlot;
 import atmmachine.components.ReceiptPrinter;
+import atmmachine.enums.ATMState;
+import atmmachine.enums.TransactionStatus;
 import atmmachine.enums.TransactionType;
 import atmmachine.models.BankAccount;
 import atmmachine.models.Card;
 import atmmachine.models.Transaction;
+import atmmachine.network.AuthorizationResult;
+import atmmachine.network.NetworkSwitch;
 import atmmachine.services.BankService;
+import atmmachine.services.CheckClearingService;
+import atmmachine.services.IdempotencyCache;
+import atmmachine.services.TransactionJournal;
+import atmmachine.services.TransactionPool;
 import atmmachine.states.ATMStateHandler;
+import atmmachine.states.CardInsertedStateHandler;
 import atmmachine.states.IdleStateHandler;
+import atmmachine.states.PinVerifiedStateHandler;
+import atmmachine.states.TransactionSelectedStateHandler;
+import atmmachine.tracing.ProcessingPhaseEvent;
+import atmmachine.tracing.StateTransitionEvent;
+import atmmachine.tracing.Tracing;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class ATM {
     private static ATM instance;
@@ -25,23 +41,47 @@ public class ATM {
     private DepositSlot depositSlot;
     private ReceiptPrinter receiptPrinter;
     private BankService bankService;
+    private Clock clock;
+    private NetworkSwitch networkSwitch;
+    private CheckClearingService checkClearingService;
+    private IdempotencyCache idempotencyCache;
 
     private ATMStateHandler stateHandler;
     private Card currentCard;
     private BankAccount currentAccount;
     private TransactionType selectedTransactionType;
-    private List<Transaction> transactionHistory;
+    private TransactionPool transactionPool;
+    private TransactionJournal transactionHistory;
+    private String transactionIdPrefix;
+    private long transactionSequence;
+    private Transaction lastTransaction;
+    private String idempotencyKey;
+
+    private static final int IDEMPOTENCY_CACHE_SIZE = 10_000;
+    private static final long IDEMPOTENCY_TTL_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int HISTORY_CAPACITY = 1024;
+    private static final int PREALLOCATED_TRANSACTIONS = 64;
 
     private ATM(String atmId, String location) {
+        this(atmId, location, new BankService(), Clock.SYSTEM);
+    }
+
+    private ATM(String atmId, String location, BankService bankService, Clock clock) {
         this.atmId = atmId;
         this.location = location;
-        this.cardReader = new CardReader();
+        this.clock = clock;
+        this.cardReader = new CardReader(clock);
         this.cashDispenser = new CashDispenser();
         this.depositSlot = new DepositSlot();
         this.receiptPrinter = new ReceiptPrinter();
-        this.bankService = new BankService();
+        this.bankService = bankService;
         this.stateHandler = new IdleStateHandler();
-        this.transactionHistory = new ArrayList<>();
+        this.transactionPool = new TransactionPool(PREALLOCATED_TRANSACTIONS);
+        this.transactionHistory = new TransactionJournal(HISTORY_CAPACITY, transactionPool);
+        this.idempotencyCache = new IdempotencyCache(IDEMPOTENCY_CACHE_SIZE, IDEMPOTENCY_TTL_MILLIS);
+        // Terminal id plus start time: the per-terminal sequence restarts at 1 on every
+        // start, so IDs stay unique across the fleet and across restarts.
+        this.transactionIdPrefix = atmId + "-" + Long.toString(clock.currentTimeMillis(), 36) + "-TXN";
     }
 
     public static synchronized ATM getInstance(String atmId, String location) {
@@ -62,29 +102,98 @@ public class ATM {
         instance = null;
     }
 
+    // Creates a standalone terminal outside the singleton, for fleets of terminals
+    // sharing one BankService (e.g. simulation runs).
+    public static ATM createTerminal(String atmId, String location, BankService bankService, Clock clock) {
+        return new ATM(atmId, location, bankService, clock);
+    }
+
     // State pattern delegation
     public void insertCard(Card card) {
+        StateTransitionEvent event = Tracing.beginTransition(this, "insertCard");
+        ATMStateHandler before = stateHandler;
         stateHandler.insertCard(this, card);
+        Tracing.endTransition(event, this, stateHandler != before && stateHandler instanceof CardInsertedStateHandler);
     }
 
     public void enterPin(String pin) {
+        StateTransitionEvent event = Tracing.beginTransition(this, "enterPin");
+        ATMStateHandler before = stateHandler;
         stateHandler.enterPin(this, pin);
+        Tracing.endTransition(event, this, stateHandler != before && stateHandler instanceof PinVerifiedStateHandler);
+    }
+
+    // Sends the PIN to the issuer through the network switch without blocking; apply
+    // the result with completePinAuthorization once it arrives.
+    public CompletableFuture<AuthorizationResult> authorizePinAsync(String pin) {
+        ProcessingPhaseEvent phase = Tracing.beginPhase(this, "pinValidation", null);
+        return networkSwitch.authorizeAsync(currentCard, pin)
+            .whenComplete((result, error) -> Tracing.endPhase(phase, result != null && result.isApproved()));
+    }
+
+    public void completePinAuthorization(AuthorizationResult result) {
+        StateTransitionEvent event = Tracing.beginTransition(this, "enterPin");
+        if (stateHandler instanceof CardInsertedStateHandler) {
+            ((CardInsertedStateHandler) stateHandler).applyAuthorization(this, result);
+        }
+        Tracing.endTransition(event, this, stateHandler instanceof PinVerifiedStateHandler);
     }
 
     public void selectTransaction(TransactionType type) {
+        StateTransitionEvent event = Tracing.beginTransition(this, "selectTransaction");
         stateHandler.selectTransaction(this, type);
+        Tracing.endTransition(event, this, stateHandler instanceof TransactionSelectedStateHandler);
     }
 
     public void executeTransaction(double amount, String targetAccount) {
+        this.lastTransaction = null;
+        StateTransitionEvent event = Tracing.beginTransition(this, "executeTransaction");
         stateHandler.executeTransaction(this, amount, targetAccount);
+        Tracing.endTransition(event, this, lastTransaction != null && lastTransaction.getStatus() != TransactionStatus.FAILED);
     }
 
     public void executeTransaction(double amount) {
         executeTransaction(amount, null);
     }
 
+    // Retries carrying the same idempotency key get the original Transaction back
+    // instead of being executed a second time. The cache is checked here, before the
+    // state handler, so a retry is answered in any state that has an account.
+    public Transaction executeTransaction(double amount, String targetAccount, String idempotencyKey) {
+        if (idempotencyKey != null && currentAccount != null) {
+            ProcessingPhaseEvent lookup = Tracing.beginPhase(this, "idempotencyLookup", selectedTransactionType);
+            Transaction original = idempotencyCache.get(requestKey(idempotencyKey), clock.currentTimeMillis());
+            Tracing.endPhase(lookup, original == null);
+            if (original != null) {
+                if (Console.isEnabled()) {
+                    Console.println("Duplicate request " + idempotencyKey + ". Returning original result: " + original);
+                }
+                this.lastTransaction = original;
+                if (stateHandler instanceof TransactionSelectedStateHandler) {
+                    stateHandler = new PinVerifiedStateHandler();
+                }
+                return original.copy();
+            }
+        }
+        this.idempotencyKey = idempotencyKey;
+        try {
+            executeTransaction(amount, targetAccount);
+        } finally {
+            this.idempotencyKey = null;
+        }
+        // The journal recycles pooled records, so callers get their own copy.
+        return lastTransaction == null ? null : lastTransaction.copy();
+    }
+
+    // Keys are scoped to the account so two cards cannot collide on the same key.
+    public String requestKey(String idempotencyKey) {
+        return currentAccount.getAccountNumber() + ":" + idempotencyKey;
+    }
+
     public void cancel() {
+        StateTransitionEvent event = Tracing.beginTransition(this, "cancel");
         stateHandler.cancel(this);
+        Tracing.endTransition(event, this, true);
     }
 
     public void ejectCard() {
@@ -96,10 +205,15 @@ public class ATM {
 
     // Internal setters used by state handlers
     public void setStateHandler(ATMStateHandler handler) { this.stateHandler = handler; }
+    public void setNetworkSwitch(NetworkSwitch networkSwitch) { this.networkSwitch = networkSwitch; }
+    public void setCheckClearingService(CheckClearingService service) { this.checkClearingService = service; }
     public void setCurrentCard(Card card) { this.currentCard = card; }
     public void setCurrentAccount(BankAccount account) { this.currentAccount = account; }
     public void setSelectedTransactionType(TransactionType type) { this.selectedTransactionType = type; }
-    public void addTransaction(Transaction transaction) { this.transactionHistory.add(transaction); }
+    public void addTransaction(Transaction transaction) {
+        this.transactionHistory.append(transaction);
+        this.lastTransaction = transaction;
+    }
 
     // Getters
     public String getAtmId() { return atmId; }
@@ -109,24 +223,40 @@ public class ATM {
     public DepositSlot getDepositSlot() { return depositSlot; }
     public ReceiptPrinter getReceiptPrinter() { return receiptPrinter; }
     public BankService getBankService() { return bankService; }
+    public Clock getClock() { return clock; }
+    public NetworkSwitch getNetworkSwitch() { return networkSwitch; }
+    public CheckClearingService getCheckClearingService() { return checkClearingService; }
     public ATMStateHandler getStateHandler() { return stateHandler; }
+    public ATMState getState() { return ATMState.valueOf(stateHandler.getStateName()); }
     public Card getCurrentCard() { return currentCard; }
     public BankAccount getCurrentAccount() { return currentAccount; }
     public TransactionType getSelectedTransactionType() { return selectedTransactionType; }
-    public List<Transaction> getTransactionHistory() { return transactionHistory; }
+    // Copies, because the journal recycles its pooled records once it wraps.
+    public List<Transaction> getTransactionHistory() {
+        List<Transaction> history = transactionHistory.recent();
+        history.replaceAll(Transaction::copy);
+        return history;
+    }
+    public TransactionJournal getTransactionJournal() { return transactionHistory; }
+    public TransactionPool getTransactionPool() { return transactionPool; }
+    public String getTransactionIdPrefix() { return transactionIdPrefix; }
+    public long nextTransactionNumber() { return ++transactionSequence; }
+    public Transaction getLastTransaction() { return lastTransaction; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public IdempotencyCache getIdempotencyCache() { return idempotencyCache; }
 
     public void displayStatus() {
-        System.out.println("\n========== ATM STATUS ==========");
-        System.out.println("ATM ID: " + atmId);
-        System.out.println("Location: " + location);
-        System.out.println("Current State: " + stateHandler.getStateName());
+        Console.println("\n========== ATM STATUS ==========");
+        Console.println("ATM ID: " + atmId);
+        Console.println("Location: " + location);
+        Console.println("Current State: " + stateHandler.getStateName());
         if (currentCard != null) {
-            System.out.println("Current Card: " + currentCard.getMaskedCardNumber());
+            Console.println("Current Card: " + currentCard.getMaskedCardNumber());
         }
         if (currentAccount != null) {
-            System.out.println("Account: " + currentAccount.getAccountNumber());
+            Console.println("Account: " + currentAccount.getAccountNumber());
         }
-        System.out.println("Total Transactions: " + transactionHistory.size());
-        System.out.println("=================================\n");
+        Console.println("Total Transactions: " + transactionHistory.getTotalRecorded());
+        Console.println("=================================\n");
     }
 }
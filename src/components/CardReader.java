@@ -5,21 +5,32 @@ import atmmachine.models.Card;
 public class CardReader {
     private Card currentCard;
     private boolean cardInserted;
+    private final Clock clock;
+
+    public CardReader() {
+        this(Clock.SYSTEM);
+    }
+
+    public CardReader(Clock clock) {
+        this.clock = clock;
+    }
 
     public boolean insertCard(Card card) {
         if (cardInserted) {
-            System.out.println("A card is already inserted.");
+            Console.println("A card is already inserted.");
             return false;
         }
 
-        if (card.isExpired()) {
-            System.out.println("Card is expired.");
+        if (card.isExpired(clock.currentTimeMillis())) {
+            Console.println("Card is expired.");
             return false;
         }
 
         this.currentCard = card;
         this.cardInserted = true;
-        System.out.println("Card inserted: " + card.getMaskedCardNumber());
+        if (Console.isEnabled()) {
+            Console.println("Card inserted: " + card.getMaskedCardNumber());
+        }
         return true;
     }
 
@@ -28,7 +39,9 @@ public class CardReader {
         this.currentCard = null;
         this.cardInserted = false;
         if (ejected != null) {
-            System.out.println("Card ejected: " + ejected.getMaskedCardNumber());
+            if (Console.isEnabled()) {
+                Console.println("Card ejected: " + ejected.getMaskedCardNumber());
+            }
         }
         return ejected;
     }
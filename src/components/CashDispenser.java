@@ -4,84 +4,149 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class CashDispenser {
-    private Map<Integer, Integer> cashInventory; // denomination -> count
     private static final int[] DENOMINATIONS = {100, 50, 20, 10};
+    private static final int[] DEFAULT_COUNTS = {100, 200, 500, 500};
+
+    // counts[i] holds the notes loaded for DENOMINATIONS[i]; totalCash is kept in step
+    // so that inventory reads do not have to walk a boxed map.
+    private final int[] counts = new int[DENOMINATIONS.length];
+    private long totalCash;
+    private DispenseListener dispenseListener;
+
+    public interface DispenseListener {
+        void onDispense(int denomination, int count, int remaining);
+        void onRefill(int[] counts);
+    }
 
     public CashDispenser() {
-        cashInventory = new HashMap<>();
-        initializeCash();
+        this(DEFAULT_COUNTS);
     }
 
-    private void initializeCash() {
-        cashInventory.put(100, 100);
-        cashInventory.put(50, 200);
-        cashInventory.put(20, 500);
-        cashInventory.put(10, 500);
+    public CashDispenser(int[] initialCounts) {
+        if (initialCounts.length != DENOMINATIONS.length) {
+            throw new IllegalArgumentException("Expected " + DENOMINATIONS.length + " denomination counts.");
+        }
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            counts[i] = initialCounts[i];
+            totalCash += (long) DENOMINATIONS[i] * initialCounts[i];
+        }
     }
 
-    public boolean canDispense(double amount) {
+    public synchronized boolean canDispense(double amount) {
         if (amount <= 0 || amount % 10 != 0) {
             return false;
         }
 
         int remaining = (int) amount;
-        Map<Integer, Integer> tempInventory = new HashMap<>(cashInventory);
 
-        for (int denom : DENOMINATIONS) {
-            int available = tempInventory.get(denom);
-            int needed = remaining / denom;
-            int used = Math.min(needed, available);
-            remaining -= used * denom;
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            int needed = remaining / DENOMINATIONS[i];
+            int used = Math.min(needed, counts[i]);
+            remaining -= used * DENOMINATIONS[i];
         }
 
         return remaining == 0;
     }
 
-    public Map<Integer, Integer> dispense(double amount) {
+    public synchronized Map<Integer, Integer> dispense(double amount) {
         if (!canDispense(amount)) {
-            System.out.println("Cannot dispense exact amount.");
+            Console.println("Cannot dispense exact amount.");
             return null;
         }
 
         Map<Integer, Integer> dispensed = new HashMap<>();
         int remaining = (int) amount;
 
-        for (int denom : DENOMINATIONS) {
-            int available = cashInventory.get(denom);
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            int denom = DENOMINATIONS[i];
             int needed = remaining / denom;
-            int used = Math.min(needed, available);
+            int used = Math.min(needed, counts[i]);
 
             if (used > 0) {
                 dispensed.put(denom, used);
-                cashInventory.put(denom, available - used);
+                counts[i] -= used;
+                totalCash -= (long) used * denom;
                 remaining -= used * denom;
+                if (dispenseListener != null) {
+                    dispenseListener.onDispense(denom, used, counts[i]);
+                }
             }
         }
 
-        System.out.println("\n*** DISPENSING CASH ***");
+        Console.println("\n*** DISPENSING CASH ***");
         for (Map.Entry<Integer, Integer> entry : dispensed.entrySet()) {
-            System.out.println("  $" + entry.getKey() + " x " + entry.getValue());
+            if (Console.isEnabled()) {
+                Console.println("  $" + entry.getKey() + " x " + entry.getValue());
+            }
+        }
+        if (Console.isEnabled()) {
+            Console.println("  Total: $" + String.format("%.2f", amount));
         }
-        System.out.println("  Total: $" + String.format("%.2f", amount));
 
         return dispensed;
     }
 
-    public void addCash(int denomination, int count) {
-        cashInventory.merge(denomination, count, Integer::sum);
+    public synchronized void addCash(int denomination, int count) {
+        int index = indexOf(denomination);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unsupported denomination: $" + denomination);
+        }
+        counts[index] += count;
+        totalCash += (long) denomination * count;
+        if (dispenseListener != null) {
+            dispenseListener.onRefill(counts.clone());
+        }
     }
 
-    public double getTotalCash() {
-        return cashInventory.entrySet().stream()
-            .mapToDouble(e -> e.getKey() * e.getValue())
-            .sum();
+    public synchronized void restoreInventory(int[] restoredCounts) {
+        if (restoredCounts.length != DENOMINATIONS.length) {
+            throw new IllegalArgumentException("Expected " + DENOMINATIONS.length + " denomination counts.");
+        }
+        totalCash = 0;
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            counts[i] = restoredCounts[i];
+            totalCash += (long) DENOMINATIONS[i] * restoredCounts[i];
+        }
+        if (dispenseListener != null) {
+            dispenseListener.onRefill(counts.clone());
+        }
+    }
+
+    public synchronized int getCount(int denomination) {
+        int index = indexOf(denomination);
+        return index < 0 ? 0 : counts[index];
+    }
+
+    public synchronized int[] getCounts() {
+        return counts.clone();
+    }
+
+    public synchronized double getTotalCash() {
+        return totalCash;
+    }
+
+    public synchronized void setDispenseListener(DispenseListener listener) {
+        this.dispenseListener = listener;
+    }
+
+    public static int[] getDenominations() {
+        return DENOMINATIONS.clone();
+    }
+
+    private static int indexOf(int denomination) {
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            if (DENOMINATIONS[i] == denomination) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    public void displayInventory() {
-        System.out.println("\n=== Cash Dispenser Inventory ===");
-        for (int denom : DENOMINATIONS) {
-            System.out.println("$" + denom + ": " + cashInventory.get(denom) + " notes");
+    public synchronized void displayInventory() {
+        Console.println("\n=== Cash Dispenser Inventory ===");
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            Console.println("$" + DENOMINATIONS[i] + ": " + counts[i] + " notes");
         }
-        System.out.println("Total: $" + String.format("%.2f", getTotalCash()));
+        Console.println("Total: $" + String.format("%.2f", getTotalCash()));
     }
 }
@@ -0,0 +1,7 @@
+package atmmachine.components;
+
+public interface Clock {
+    Clock SYSTEM = System::currentTimeMillis;
+
+    long currentTimeMillis();
+}
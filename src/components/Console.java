@@ -0,0 +1,24 @@
+package atmmachine.components;
+
+// Terminal message output. The simulator switches it off so handlers skip building
+// messages nobody will read; callers that format guard with isEnabled().
+public final class Console {
+    private static volatile boolean enabled = true;
+
+    private Console() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static void println(String message) {
+        if (enabled) {
+            System.out.println(message);
+        }
+    }
+}
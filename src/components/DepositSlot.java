@@ -1,21 +1,69 @@
 package atmmachine.components;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 public class DepositSlot {
     private double depositedAmount;
+    private Path spoolDirectory;
+    private Path capturedCheck;
+    private long checkSequence;
 
     public void acceptCash(double amount) {
         this.depositedAmount = amount;
-        System.out.println("Cash deposited: $" + String.format("%.2f", amount));
+        if (Console.isEnabled()) {
+            Console.println("Cash deposited: $" + String.format("%.2f", amount));
+        }
     }
 
     public void acceptCheck(double amount) {
         this.depositedAmount = amount;
-        System.out.println("Check deposited: $" + String.format("%.2f", amount));
+        if (Console.isEnabled()) {
+            Console.println("Check deposited: $" + String.format("%.2f", amount));
+        }
+    }
+
+    // Copies the scanned check image into the slot's spool directory. transferTo lets the
+    // kernel move the bytes file-to-file without passing them through the Java heap.
+    public boolean acceptCheck(Path scannedImage) {
+        try {
+            if (spoolDirectory == null) {
+                spoolDirectory = Files.createTempDirectory("atm-checks");
+            }
+            Path spooled = spoolDirectory.resolve("check-" + (++checkSequence) + ".img");
+            try (FileChannel in = FileChannel.open(scannedImage, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(spooled, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                long size = in.size();
+                long copied = 0;
+                while (copied < size) {
+                    copied += in.transferTo(copied, size - copied, out);
+                }
+            }
+            this.capturedCheck = spooled;
+            if (Console.isEnabled()) {
+                Console.println("Check captured: " + spooled.getFileName());
+            }
+            return true;
+        } catch (IOException e) {
+            if (Console.isEnabled()) {
+                Console.println("Unable to read check: " + e.getMessage());
+            }
+            return false;
+        }
     }
 
     public double getDepositedAmount() { return depositedAmount; }
+    public Path getCapturedCheck() { return capturedCheck; }
+
+    public void setSpoolDirectory(Path spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
 
     public void reset() {
         this.depositedAmount = 0;
+        this.capturedCheck = null;
     }
 }
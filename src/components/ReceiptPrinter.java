@@ -5,37 +5,44 @@ import atmmachine.models.Transaction;
 
 public class ReceiptPrinter {
     public void printReceipt(Transaction transaction, BankAccount account) {
-        System.out.println("\n" + "=".repeat(40));
-        System.out.println("           TRANSACTION RECEIPT");
-        System.out.println("=".repeat(40));
-        System.out.println("Date: " + transaction.getTimestamp());
-        System.out.println("Transaction ID: " + transaction.getTransactionId());
-        System.out.println("Type: " + transaction.getType());
-        System.out.println("-".repeat(40));
+        if (!Console.isEnabled()) {
+            return;
+        }
+        Console.println("\n" + "=".repeat(40));
+        Console.println("           TRANSACTION RECEIPT");
+        Console.println("=".repeat(40));
+        Console.println("Date: " + transaction.getTimestamp());
+        Console.println("Transaction ID: " + transaction.getTransactionId());
+        Console.println("Type: " + transaction.getType());
+        Console.println("-".repeat(40));
 
         switch (transaction.getType()) {
             case BALANCE_INQUIRY:
-                System.out.println("Current Balance: $" + String.format("%.2f", account.getBalance()));
+                Console.println("Current Balance: $" + String.format("%.2f", account.getBalance()));
                 break;
             case WITHDRAWAL:
-                System.out.println("Amount Withdrawn: $" + String.format("%.2f", transaction.getAmount()));
-                System.out.println("Remaining Balance: $" + String.format("%.2f", account.getBalance()));
+                Console.println("Amount Withdrawn: $" + String.format("%.2f", transaction.getAmount()));
+                Console.println("Remaining Balance: $" + String.format("%.2f", account.getBalance()));
                 break;
             case DEPOSIT:
-                System.out.println("Amount Deposited: $" + String.format("%.2f", transaction.getAmount()));
-                System.out.println("New Balance: $" + String.format("%.2f", account.getBalance()));
+                Console.println("Amount Deposited: $" + String.format("%.2f", transaction.getAmount()));
+                Console.println("New Balance: $" + String.format("%.2f", account.getBalance()));
+                break;
+            case CHECK_DEPOSIT:
+                Console.println("Check Amount: $" + String.format("%.2f", transaction.getAmount()));
+                Console.println("Funds available after clearing.");
                 break;
             case TRANSFER:
-                System.out.println("Amount Transferred: $" + String.format("%.2f", transaction.getAmount()));
-                System.out.println("To Account: " + transaction.getTargetAccount());
-                System.out.println("Remaining Balance: $" + String.format("%.2f", account.getBalance()));
+                Console.println("Amount Transferred: $" + String.format("%.2f", transaction.getAmount()));
+                Console.println("To Account: " + transaction.getTargetAccount());
+                Console.println("Remaining Balance: $" + String.format("%.2f", account.getBalance()));
                 break;
         }
 
-        System.out.println("-".repeat(40));
-        System.out.println("Status: " + transaction.getStatus());
-        System.out.println("=".repeat(40));
-        System.out.println("Thank you for using our ATM!");
-        System.out.println("=".repeat(40) + "\n");
+        Console.println("-".repeat(40));
+        Console.println("Status: " + transaction.getStatus());
+        Console.println("=".repeat(40));
+        Console.println("Thank you for using our ATM!");
+        Console.println("=".repeat(40) + "\n");
     }
 }
@@ -0,0 +1,5 @@
+package atmmachine.enums;
+
+public enum AccountEventType {
+    OPENED, DEPOSITED, WITHDRAWN, LOCKED
+}
@@ -0,0 +1,5 @@
+package atmmachine.enums;
+
+public enum AuthorizationStatus {
+    APPROVED, INVALID_PIN, ACCOUNT_LOCKED, ACCOUNT_NOT_FOUND, NO_ROUTE, ISSUER_UNAVAILABLE, TIMEOUT
+}
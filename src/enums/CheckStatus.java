@@ -0,0 +1,5 @@
+package atmmachine.enums;
+
+public enum CheckStatus {
+    RECEIVED, VALIDATED, ON_HOLD, POSTED, REJECTED, DUPLICATE
+}
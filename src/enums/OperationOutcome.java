@@ -0,0 +1,5 @@
+package atmmachine.enums;
+
+public enum OperationOutcome {
+    ACCEPTED, REJECTED, INVALID_PIN, CARD_EJECTED, SUCCESS, FAILED, REPLAYED, BUSY
+}
@@ -1,5 +1,5 @@
 package atmmachine.enums;
 
 public enum TransactionType {
-    BALANCE_INQUIRY, WITHDRAWAL, DEPOSIT, TRANSFER
+    BALANCE_INQUIRY, WITHDRAWAL, DEPOSIT, TRANSFER, CHECK_DEPOSIT, MINI_STATEMENT
 }
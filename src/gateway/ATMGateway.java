@@ -0,0 +1,136 @@
+package atmmachine.gateway;
+
+import atmmachine.ATM;
+import atmmachine.enums.ATMState;
+import atmmachine.enums.OperationOutcome;
+import atmmachine.enums.TransactionStatus;
+import atmmachine.enums.TransactionType;
+import atmmachine.models.Card;
+import atmmachine.models.Transaction;
+import atmmachine.models.TransactionResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+// Non-blocking front end for many terminals on one shared thread pool. Operations on
+// the same terminal are chained so they run one at a time and in submission order;
+// different terminals run in parallel. At most maxInFlight operations may be queued
+// or running at once -- beyond that callers get BUSY immediately instead of piling up
+// behind a slow issuer or journal.
+public class ATMGateway {
+    private final ExecutorService pool;
+    private final Semaphore inFlight;
+    private final Map<String, CompletableFuture<TransactionResult>> tails = new ConcurrentHashMap<>();
+
+    public ATMGateway(int threads, int maxInFlight) {
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "atm-gateway");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public CompletableFuture<TransactionResult> insertCard(ATM atm, Card card) {
+        return submit(atm, () -> {
+            atm.insertCard(card);
+            return result(atm, atm.getState() == ATMState.CARD_INSERTED ? OperationOutcome.ACCEPTED : OperationOutcome.REJECTED, null);
+        });
+    }
+
+    // With a network switch the issuer call is composed rather than waited on, so no
+    // gateway thread is held while the issuer works; later operations on the terminal
+    // still queue behind it.
+    public CompletableFuture<TransactionResult> enterPin(ATM atm, String pin) {
+        return submitAsync(atm, () -> {
+            if (atm.getState() != ATMState.CARD_INSERTED) {
+                return CompletableFuture.completedFuture(result(atm, OperationOutcome.REJECTED, null));
+            }
+            if (atm.getNetworkSwitch() == null) {
+                atm.enterPin(pin);
+                return CompletableFuture.completedFuture(pinResult(atm));
+            }
+            return atm.authorizePinAsync(pin).thenApplyAsync(authorization -> {
+                atm.completePinAuthorization(authorization);
+                return pinResult(atm);
+            }, pool);
+        });
+    }
+
+    private static TransactionResult pinResult(ATM atm) {
+        if (atm.getState() == ATMState.PIN_VERIFIED) {
+            return result(atm, OperationOutcome.ACCEPTED, null);
+        }
+        return result(atm, atm.getState() == ATMState.IDLE ? OperationOutcome.CARD_EJECTED : OperationOutcome.INVALID_PIN, null);
+    }
+
+    // Selects and executes in one step so no other operation on the terminal can slip in between.
+    public CompletableFuture<TransactionResult> executeTransaction(ATM atm, TransactionType type, double amount,
+                                                                   String targetAccount, String idempotencyKey) {
+        return submit(atm, () -> {
+            if (atm.getState() != ATMState.PIN_VERIFIED && atm.getState() != ATMState.TRANSACTION_SELECTED) {
+                return result(atm, OperationOutcome.REJECTED, null);
+            }
+            atm.selectTransaction(type);
+            long recordedBefore = atm.getTransactionJournal().getTotalRecorded();
+            Transaction transaction = atm.executeTransaction(amount, targetAccount, idempotencyKey);
+            if (transaction == null) {
+                return result(atm, OperationOutcome.REJECTED, null);
+            }
+            if (atm.getTransactionJournal().getTotalRecorded() == recordedBefore) {
+                return result(atm, OperationOutcome.REPLAYED, transaction);
+            }
+            // PENDING means queued for later settlement, e.g. a check awaiting clearing.
+            OperationOutcome outcome = transaction.getStatus() == TransactionStatus.SUCCESS ? OperationOutcome.SUCCESS
+                : transaction.getStatus() == TransactionStatus.PENDING ? OperationOutcome.ACCEPTED
+                : OperationOutcome.FAILED;
+            return result(atm, outcome, transaction);
+        });
+    }
+
+    public CompletableFuture<TransactionResult> cancel(ATM atm) {
+        return submit(atm, () -> {
+            atm.cancel();
+            return result(atm, OperationOutcome.ACCEPTED, null);
+        });
+    }
+
+    public int availableCapacity() {
+        return inFlight.availablePermits();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private CompletableFuture<TransactionResult> submit(ATM atm, Supplier<TransactionResult> operation) {
+        return submitAsync(atm, () -> CompletableFuture.completedFuture(operation.get()));
+    }
+
+    private CompletableFuture<TransactionResult> submitAsync(ATM atm,
+                                                             Supplier<CompletableFuture<TransactionResult>> operation) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.completedFuture(new TransactionResult(OperationOutcome.BUSY, null, null));
+        }
+
+        CompletableFuture<TransactionResult> next = tails.compute(atm.getAtmId(), (id, tail) -> {
+            CompletableFuture<TransactionResult> start = tail == null
+                ? CompletableFuture.completedFuture(null) : tail.exceptionally(e -> null);
+            return start.thenComposeAsync(ignored -> operation.get(), pool);
+        });
+        next.whenComplete((r, e) -> {
+            inFlight.release();
+            tails.remove(atm.getAtmId(), next);
+        });
+        return next;
+    }
+
+    private static TransactionResult result(ATM atm, OperationOutcome outcome, Transaction transaction) {
+        return new TransactionResult(outcome, transaction, atm.getState());
+    }
+}
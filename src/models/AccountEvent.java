@@ -0,0 +1,31 @@
+package atmmachine.models;
+
+import atmmachine.enums.AccountEventType;
+
+public class AccountEvent {
+    private final String accountNumber;
+    private final long sequence;
+    private final AccountEventType type;
+    private final double amount;
+    private final long timestampMillis;
+
+    public AccountEvent(String accountNumber, long sequence, AccountEventType type,
+                        double amount, long timestampMillis) {
+        this.accountNumber = accountNumber;
+        this.sequence = sequence;
+        this.type = type;
+        this.amount = amount;
+        this.timestampMillis = timestampMillis;
+    }
+
+    public String getAccountNumber() { return accountNumber; }
+    public long getSequence() { return sequence; }
+    public AccountEventType getType() { return type; }
+    public double getAmount() { return amount; }
+    public long getTimestampMillis() { return timestampMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("AccountEvent[%s#%d] %s: $%.2f", accountNumber, sequence, type, amount);
+    }
+}
@@ -0,0 +1,46 @@
+package atmmachine.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Interns account numbers to dense int ids so transaction records can refer to
+// accounts without holding String references. Ids are never reused.
+public final class AccountIds {
+    public static final int NONE = -1;
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] accounts = new String[1024];
+    private static int nextId;
+
+    private AccountIds() {
+    }
+
+    public static int idOf(String accountNumber) {
+        if (accountNumber == null) {
+            return NONE;
+        }
+        Integer id = ids.get(accountNumber);
+        return id != null ? id : register(accountNumber);
+    }
+
+    public static String accountOf(int id) {
+        return id == NONE ? null : accounts[id];
+    }
+
+    private static synchronized int register(String accountNumber) {
+        Integer existing = ids.get(accountNumber);
+        if (existing != null) {
+            return existing;
+        }
+        int id = nextId++;
+        String[] current = accounts;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = accountNumber;
+        accounts = current;
+        ids.put(accountNumber, id);
+        return id;
+    }
+}
@@ -0,0 +1,34 @@
+package atmmachine.models;
+
+public class AccountState {
+    public static final AccountState EMPTY = new AccountState(0, false, 0);
+
+    private final double balance;
+    private final boolean locked;
+    private final long sequence;
+
+    public AccountState(double balance, boolean locked, long sequence) {
+        this.balance = balance;
+        this.locked = locked;
+        this.sequence = sequence;
+    }
+
+    public AccountState apply(AccountEvent event) {
+        switch (event.getType()) {
+            case OPENED:
+                return new AccountState(event.getAmount(), false, event.getSequence());
+            case DEPOSITED:
+                return new AccountState(balance + event.getAmount(), locked, event.getSequence());
+            case WITHDRAWN:
+                return new AccountState(balance - event.getAmount(), locked, event.getSequence());
+            case LOCKED:
+                return new AccountState(balance, true, event.getSequence());
+            default:
+                return this;
+        }
+    }
+
+    public double getBalance() { return balance; }
+    public boolean isLocked() { return locked; }
+    public long getSequence() { return sequence; }
+}
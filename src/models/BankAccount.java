@@ -1,39 +1,81 @@
 package atmmachine.models;
 
+import atmmachine.components.Clock;
+import atmmachine.components.Console;
+import atmmachine.enums.AccountEventType;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+
 public class BankAccount {
     private String accountNumber;
     private String holderName;
-    private double balance;
     private String pin;
-    private boolean isLocked;
+    // Balance and lock flag are only ever changed by folding an event into this state
+    // with AccountState.apply, the same fold the event store and projections use.
+    private volatile AccountState state;
     private int failedAttempts;
+    private volatile long version;
+    private long eventSequence;
+    private EventListener eventListener;
+    private Clock clock = Clock.SYSTEM;
+
+    // Copy-on-write state for snapshot cuts: the first mutation in a new snapshot epoch
+    // saves the state as it was at the cut, before changing it.
+    private LongSupplier snapshotEpoch;
+    private long savedEpoch = -1;
+    private AccountState savedState;
+    private int savedFailedAttempts;
     private static final int MAX_FAILED_ATTEMPTS = 3;
 
+    public interface EventListener {
+        void onEvent(AccountEvent event);
+    }
+
     public BankAccount(String accountNumber, String holderName, double initialBalance, String pin) {
         this.accountNumber = accountNumber;
         this.holderName = holderName;
-        this.balance = initialBalance;
         this.pin = pin;
-        this.isLocked = false;
+        this.state = new AccountState(initialBalance, false, 0);
         this.failedAttempts = 0;
     }
 
-    public boolean validatePin(String inputPin) {
-        if (isLocked) {
-            System.out.println("Account is locked. Please contact bank.");
+    private BankAccount(String accountNumber, String holderName, double balance, String pin,
+                        boolean isLocked, int failedAttempts) {
+        this.accountNumber = accountNumber;
+        this.holderName = holderName;
+        this.pin = pin;
+        this.state = new AccountState(balance, isLocked, 0);
+        this.failedAttempts = failedAttempts;
+    }
+
+    public synchronized boolean validatePin(String inputPin) {
+        if (state.isLocked()) {
+            Console.println("Account is locked. Please contact bank.");
             return false;
         }
 
         if (this.pin.equals(inputPin)) {
-            failedAttempts = 0;
+            if (failedAttempts != 0) {
+                preserveForSnapshot();
+                failedAttempts = 0;
+                version++;
+            }
             return true;
         } else {
+            preserveForSnapshot();
             failedAttempts++;
+            version++;
             if (failedAttempts >= MAX_FAILED_ATTEMPTS) {
-                isLocked = true;
-                System.out.println("Account locked due to too many failed attempts.");
+                record(AccountEventType.LOCKED, 0);
+                Console.println("Account locked due to too many failed attempts.");
             } else {
-                System.out.println("Invalid PIN. " + (MAX_FAILED_ATTEMPTS - failedAttempts) + " attempts remaining.");
+                if (Console.isEnabled()) {
+                    Console.println("Invalid PIN. " + (MAX_FAILED_ATTEMPTS - failedAttempts) + " attempts remaining.");
+                }
             }
             return false;
         }
@@ -41,28 +83,119 @@ public class BankAccount {
 
     public synchronized boolean withdraw(double amount) {
         if (amount <= 0) {
-            System.out.println("Invalid withdrawal amount.");
+            Console.println("Invalid withdrawal amount.");
             return false;
         }
-        if (amount > balance) {
-            System.out.println("Insufficient funds. Available balance: $" + String.format("%.2f", balance));
+        if (amount > state.getBalance()) {
+            if (Console.isEnabled()) {
+                Console.println("Insufficient funds. Available balance: $" + String.format("%.2f", state.getBalance()));
+            }
             return false;
         }
-        balance -= amount;
+        preserveForSnapshot();
+        version++;
+        record(AccountEventType.WITHDRAWN, amount);
         return true;
     }
 
     public synchronized boolean deposit(double amount) {
         if (amount <= 0) {
-            System.out.println("Invalid deposit amount.");
+            Console.println("Invalid deposit amount.");
             return false;
         }
-        balance += amount;
+        preserveForSnapshot();
+        version++;
+        record(AccountEventType.DEPOSITED, amount);
         return true;
     }
 
+    private void preserveForSnapshot() {
+        if (snapshotEpoch == null) {
+            return;
+        }
+        long epoch = snapshotEpoch.getAsLong();
+        if (savedEpoch != epoch) {
+            savedEpoch = epoch;
+            savedState = state;
+            savedFailedAttempts = failedAttempts;
+        }
+    }
+
+    // Event timestamps come from the owning bank's clock, so a simulation run on a
+    // virtual clock produces the same event streams for the same seed.
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public synchronized void setSnapshotEpoch(LongSupplier snapshotEpoch) {
+        this.snapshotEpoch = snapshotEpoch;
+    }
+
+    // Called under the account monitor, so events are folded and reach the listener in
+    // sequence order.
+    private void record(AccountEventType type, double amount) {
+        AccountEvent event = new AccountEvent(accountNumber, ++eventSequence, type, amount,
+            clock.currentTimeMillis());
+        state = state.apply(event);
+        if (eventListener != null) {
+            eventListener.onEvent(event);
+        }
+    }
+
+    // Starts the listener's stream from the current state; folding these events leaves
+    // the state unchanged.
+    public synchronized void setEventListener(EventListener listener) {
+        this.eventListener = listener;
+        boolean locked = state.isLocked();
+        record(AccountEventType.OPENED, state.getBalance());
+        if (locked) {
+            record(AccountEventType.LOCKED, 0);
+        }
+    }
+
     public String getAccountNumber() { return accountNumber; }
     public String getHolderName() { return holderName; }
-    public double getBalance() { return balance; }
-    public boolean isLocked() { return isLocked; }
+    public double getBalance() { return state.getBalance(); }
+    public boolean isLocked() { return state.isLocked(); }
+    public long getEventSequence() { return state.getSequence(); }
+    public synchronized int getFailedAttempts() { return failedAttempts; }
+    public long getVersion() { return version; }
+
+    // Snapshot format: accountNumber, holderName, pin (length-prefixed UTF-8),
+    // balance (double), locked (byte), failedAttempts (byte). Writes the state as of the
+    // cut for cutEpoch and returns false if that was the saved copy rather than the
+    // current state.
+    public synchronized boolean writeSnapshot(DataOutputStream out, long cutEpoch) throws IOException {
+        boolean current = savedEpoch != cutEpoch;
+        AccountState snapshot = current ? state : savedState;
+        writeString(out, accountNumber);
+        writeString(out, holderName);
+        writeString(out, pin);
+        out.writeDouble(snapshot.getBalance());
+        out.writeByte(snapshot.isLocked() ? 1 : 0);
+        out.writeByte(current ? failedAttempts : savedFailedAttempts);
+        return current;
+    }
+
+    public static BankAccount readSnapshot(ByteBuffer in) {
+        String accountNumber = readString(in);
+        String holderName = readString(in);
+        String pin = readString(in);
+        double balance = in.getDouble();
+        boolean locked = in.get() != 0;
+        int failedAttempts = in.get();
+        return new BankAccount(accountNumber, holderName, balance, pin, locked, failedAttempts);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,33 @@
+package atmmachine.models;
+
+public class BatchReport {
+    private int batchNumber;
+    private int instructions;
+    private int succeeded;
+    private int failed;
+    private long elapsedNanos;
+
+    public BatchReport(int batchNumber, int instructions, int succeeded, int failed, long elapsedNanos) {
+        this.batchNumber = batchNumber;
+        this.instructions = instructions;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getBatchNumber() { return batchNumber; }
+    public int getInstructions() { return instructions; }
+    public int getSucceeded() { return succeeded; }
+    public int getFailed() { return failed; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getThroughputPerSecond() {
+        return elapsedNanos == 0 ? 0 : instructions * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Batch[%d] %d instructions: %d succeeded, %d failed, %.0f txn/s",
+            batchNumber, instructions, succeeded, failed, getThroughputPerSecond());
+    }
+}
@@ -9,6 +9,8 @@ public class Card {
     private CardType type;
     private Date expiryDate;
     private String accountNumber;
+    public static final int INVALID_BIN = -1;
+    private static final int BIN_LENGTH = 6;
 
     public Card(String cardNumber, String holderName, CardType type, Date expiryDate, String accountNumber) {
         this.cardNumber = cardNumber;
@@ -19,7 +21,28 @@ public class Card {
     }
 
     public boolean isExpired() {
-        return new Date().after(expiryDate);
+        return isExpired(System.currentTimeMillis());
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis > expiryDate.getTime();
+    }
+
+    // Issuer identification number: the first six digits of the card number, or
+    // INVALID_BIN when the number is too short or its prefix is not all digits.
+    public int getBin() {
+        if (cardNumber == null || cardNumber.length() < BIN_LENGTH) {
+            return INVALID_BIN;
+        }
+        int bin = 0;
+        for (int i = 0; i < BIN_LENGTH; i++) {
+            char c = cardNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID_BIN;
+            }
+            bin = bin * 10 + (c - '0');
+        }
+        return bin;
     }
 
     public String getCardNumber() { return cardNumber; }
@@ -0,0 +1,41 @@
+package atmmachine.models;
+
+import atmmachine.enums.CheckStatus;
+
+import java.nio.file.Path;
+
+public class CheckDeposit {
+    private final String checkId;
+    private final String accountNumber;
+    private final Path image;
+    private final double amount;
+    private volatile CheckStatus status;
+    private volatile String imageHash;
+    private volatile String reason;
+
+    public CheckDeposit(String checkId, String accountNumber, Path image, double amount) {
+        this.checkId = checkId;
+        this.accountNumber = accountNumber;
+        this.image = image;
+        this.amount = amount;
+        this.status = CheckStatus.RECEIVED;
+    }
+
+    public void setStatus(CheckStatus status) { this.status = status; }
+    public void setImageHash(String imageHash) { this.imageHash = imageHash; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public String getCheckId() { return checkId; }
+    public String getAccountNumber() { return accountNumber; }
+    public Path getImage() { return image; }
+    public double getAmount() { return amount; }
+    public CheckStatus getStatus() { return status; }
+    public String getImageHash() { return imageHash; }
+    public String getReason() { return reason; }
+
+    @Override
+    public String toString() {
+        return String.format("Check[%s] $%.2f to %s - %s%s", checkId, amount, accountNumber, status,
+            reason == null ? "" : " (" + reason + ")");
+    }
+}
@@ -0,0 +1,34 @@
+package atmmachine.models;
+
+import java.util.Date;
+
+public class ReplenishmentOrder {
+    private String terminalId;
+    private long dueAtMillis;
+    private int[] denominations;
+    private int[] notesToLoad;
+
+    public ReplenishmentOrder(String terminalId, long dueAtMillis, int[] denominations, int[] notesToLoad) {
+        this.terminalId = terminalId;
+        this.dueAtMillis = dueAtMillis;
+        this.denominations = denominations;
+        this.notesToLoad = notesToLoad;
+    }
+
+    public String getTerminalId() { return terminalId; }
+    public long getDueAtMillis() { return dueAtMillis; }
+    public int[] getDenominations() { return denominations; }
+    public int[] getNotesToLoad() { return notesToLoad; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Replenish[").append(terminalId).append("] due ").append(new Date(dueAtMillis)).append(":");
+        for (int i = 0; i < denominations.length; i++) {
+            if (notesToLoad[i] > 0) {
+                sb.append(" $").append(denominations[i]).append(" x ").append(notesToLoad[i]);
+            }
+        }
+        return sb.toString();
+    }
+}
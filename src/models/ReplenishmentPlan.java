@@ -0,0 +1,25 @@
+package atmmachine.models;
+
+import java.util.List;
+
+public class ReplenishmentPlan {
+    private List<ReplenishmentOrder> orders;
+    private int terminalsEvaluated;
+    private int terminalsSkipped;
+    private long elapsedMillis;
+
+    public ReplenishmentPlan(List<ReplenishmentOrder> orders, int terminalsEvaluated,
+                             int terminalsSkipped, long elapsedMillis) {
+        this.orders = orders;
+        this.terminalsEvaluated = terminalsEvaluated;
+        this.terminalsSkipped = terminalsSkipped;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<ReplenishmentOrder> getOrders() { return orders; }
+    public int getTerminalsEvaluated() { return terminalsEvaluated; }
+    public int getTerminalsSkipped() { return terminalsSkipped; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    public boolean isComplete() { return terminalsSkipped == 0; }
+}
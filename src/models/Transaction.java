@@ -4,42 +4,79 @@ import atmmachine.enums.TransactionType;
 import atmmachine.enums.TransactionStatus;
 import java.util.Date;
 
+// Stored in primitive form so pooled records can be refilled without allocating:
+// account numbers are interned to ids, enums kept as ordinals, amounts in cents.
 public class Transaction {
-    private String transactionId;
-    private TransactionType type;
-    private double amount;
-    private String sourceAccount;
-    private String targetAccount;
-    private Date timestamp;
-    private TransactionStatus status;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private String idPrefix;
+    private long idNumber;
+    private byte type;
+    private byte status;
+    private long amountMinor;
+    private int sourceAccountId;
+    private int targetAccountId;
+    private long timestampNanos;
     private String description;
 
+    public Transaction() {
+    }
+
     public Transaction(String transactionId, TransactionType type, double amount,
-                       String sourceAccount, String targetAccount) {
-        this.transactionId = transactionId;
-        this.type = type;
-        this.amount = amount;
-        this.sourceAccount = sourceAccount;
-        this.targetAccount = targetAccount;
-        this.timestamp = new Date();
-        this.status = TransactionStatus.PENDING;
+                       String sourceAccount, String targetAccount, long timestampMillis) {
+        init(transactionId, -1, type, amount, AccountIds.idOf(sourceAccount), AccountIds.idOf(targetAccount),
+            timestampMillis * 1_000_000L);
+    }
+
+    // Refills this record in place; idNumber < 0 means idPrefix is the whole ID.
+    public Transaction init(String idPrefix, long idNumber, TransactionType type, double amount,
+                            int sourceAccountId, int targetAccountId, long timestampNanos) {
+        this.idPrefix = idPrefix;
+        this.idNumber = idNumber;
+        this.type = (byte) type.ordinal();
+        this.status = (byte) TransactionStatus.PENDING.ordinal();
+        this.amountMinor = Math.round(amount * 100);
+        this.sourceAccountId = sourceAccountId;
+        this.targetAccountId = targetAccountId;
+        this.timestampNanos = timestampNanos;
+        this.description = null;
+        return this;
+    }
+
+    public Transaction copy() {
+        Transaction copy = new Transaction();
+        copy.idPrefix = idPrefix;
+        copy.idNumber = idNumber;
+        copy.type = type;
+        copy.status = status;
+        copy.amountMinor = amountMinor;
+        copy.sourceAccountId = sourceAccountId;
+        copy.targetAccountId = targetAccountId;
+        copy.timestampNanos = timestampNanos;
+        copy.description = description;
+        return copy;
     }
 
-    public void setStatus(TransactionStatus status) { this.status = status; }
+    public void setStatus(TransactionStatus status) { this.status = (byte) status.ordinal(); }
     public void setDescription(String description) { this.description = description; }
 
-    public String getTransactionId() { return transactionId; }
-    public TransactionType getType() { return type; }
-    public double getAmount() { return amount; }
-    public String getSourceAccount() { return sourceAccount; }
-    public String getTargetAccount() { return targetAccount; }
-    public Date getTimestamp() { return timestamp; }
-    public TransactionStatus getStatus() { return status; }
+    public String getTransactionId() { return idNumber < 0 ? idPrefix : idPrefix + idNumber; }
+    public TransactionType getType() { return TYPES[type]; }
+    public double getAmount() { return amountMinor / 100.0; }
+    public long getAmountMinor() { return amountMinor; }
+    public String getSourceAccount() { return AccountIds.accountOf(sourceAccountId); }
+    public String getTargetAccount() { return AccountIds.accountOf(targetAccountId); }
+    public int getSourceAccountId() { return sourceAccountId; }
+    public int getTargetAccountId() { return targetAccountId; }
+    public Date getTimestamp() { return new Date(timestampNanos / 1_000_000L); }
+    public long getTimestampNanos() { return timestampNanos; }
+    public TransactionStatus getStatus() { return STATUSES[status]; }
     public String getDescription() { return description; }
 
     @Override
     public String toString() {
         return String.format("Transaction[%s] %s: $%.2f - %s",
-            transactionId, type, amount, status);
+            getTransactionId(), getType(), getAmount(), getStatus());
     }
 }
@@ -0,0 +1,26 @@
+package atmmachine.models;
+
+import atmmachine.enums.ATMState;
+import atmmachine.enums.OperationOutcome;
+
+public class TransactionResult {
+    private final OperationOutcome outcome;
+    private final Transaction transaction;
+    private final ATMState state;
+
+    public TransactionResult(OperationOutcome outcome, Transaction transaction, ATMState state) {
+        this.outcome = outcome;
+        this.transaction = transaction;
+        this.state = state;
+    }
+
+    public OperationOutcome getOutcome() { return outcome; }
+    public Transaction getTransaction() { return transaction; }
+    public ATMState getState() { return state; }
+
+    @Override
+    public String toString() {
+        return "TransactionResult[" + outcome + ", state=" + state
+            + (transaction != null ? ", " + transaction : "") + "]";
+    }
+}
@@ -0,0 +1,30 @@
+package atmmachine.models;
+
+import atmmachine.enums.TransactionType;
+
+public class TransferInstruction {
+    private TransactionType type;
+    private String sourceAccount;
+    private String targetAccount;
+    private double amount;
+
+    private TransferInstruction(TransactionType type, String sourceAccount, String targetAccount, double amount) {
+        this.type = type;
+        this.sourceAccount = sourceAccount;
+        this.targetAccount = targetAccount;
+        this.amount = amount;
+    }
+
+    public static TransferInstruction transfer(String sourceAccount, String targetAccount, double amount) {
+        return new TransferInstruction(TransactionType.TRANSFER, sourceAccount, targetAccount, amount);
+    }
+
+    public static TransferInstruction deposit(String targetAccount, double amount) {
+        return new TransferInstruction(TransactionType.DEPOSIT, null, targetAccount, amount);
+    }
+
+    public TransactionType getType() { return type; }
+    public String getSourceAccount() { return sourceAccount; }
+    public String getTargetAccount() { return targetAccount; }
+    public double getAmount() { return amount; }
+}
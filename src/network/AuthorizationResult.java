@@ -0,0 +1,21 @@
+package atmmachine.network;
+
+import atmmachine.enums.AuthorizationStatus;
+import atmmachine.models.BankAccount;
+
+public class AuthorizationResult {
+    private final AuthorizationStatus status;
+    private final BankAccount account;
+    private final String issuerName;
+
+    public AuthorizationResult(AuthorizationStatus status, BankAccount account, String issuerName) {
+        this.status = status;
+        this.account = account;
+        this.issuerName = issuerName;
+    }
+
+    public AuthorizationStatus getStatus() { return status; }
+    public BankAccount getAccount() { return account; }
+    public String getIssuerName() { return issuerName; }
+    public boolean isApproved() { return status == AuthorizationStatus.APPROVED; }
+}
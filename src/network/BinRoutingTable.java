@@ -0,0 +1,63 @@
+package atmmachine.network;
+
+import java.util.Arrays;
+
+// Sorted, non-overlapping BIN ranges searched with a binary search. Routes are
+// rebuilt copy-on-write, so lookups never lock.
+public class BinRoutingTable {
+    private static class Routes {
+        final int[] lows;
+        final int[] highs;
+        final IssuerEndpoint[] issuers;
+
+        Routes(int[] lows, int[] highs, IssuerEndpoint[] issuers) {
+            this.lows = lows;
+            this.highs = highs;
+            this.issuers = issuers;
+        }
+    }
+
+    private volatile Routes routes = new Routes(new int[0], new int[0], new IssuerEndpoint[0]);
+
+    public synchronized void addRange(int lowBin, int highBin, IssuerEndpoint issuer) {
+        if (lowBin > highBin) {
+            throw new IllegalArgumentException("Invalid BIN range: " + lowBin + "-" + highBin);
+        }
+        Routes current = routes;
+        int insertAt = 0;
+        while (insertAt < current.lows.length && current.lows[insertAt] < lowBin) {
+            insertAt++;
+        }
+        if ((insertAt > 0 && current.highs[insertAt - 1] >= lowBin)
+                || (insertAt < current.lows.length && current.lows[insertAt] <= highBin)) {
+            throw new IllegalArgumentException("BIN range " + lowBin + "-" + highBin + " overlaps an existing route.");
+        }
+
+        int size = current.lows.length + 1;
+        int[] lows = new int[size];
+        int[] highs = new int[size];
+        IssuerEndpoint[] issuers = new IssuerEndpoint[size];
+        System.arraycopy(current.lows, 0, lows, 0, insertAt);
+        System.arraycopy(current.highs, 0, highs, 0, insertAt);
+        System.arraycopy(current.issuers, 0, issuers, 0, insertAt);
+        lows[insertAt] = lowBin;
+        highs[insertAt] = highBin;
+        issuers[insertAt] = issuer;
+        System.arraycopy(current.lows, insertAt, lows, insertAt + 1, size - insertAt - 1);
+        System.arraycopy(current.highs, insertAt, highs, insertAt + 1, size - insertAt - 1);
+        System.arraycopy(current.issuers, insertAt, issuers, insertAt + 1, size - insertAt - 1);
+        routes = new Routes(lows, highs, issuers);
+    }
+
+    public IssuerEndpoint route(int bin) {
+        Routes current = routes;
+        int index = Arrays.binarySearch(current.lows, bin);
+        if (index < 0) {
+            index = -index - 2; // last range starting below bin
+        }
+        if (index < 0 || bin > current.highs[index]) {
+            return null;
+        }
+        return current.issuers[index];
+    }
+}
@@ -0,0 +1,127 @@
+package atmmachine.network;
+
+import atmmachine.components.Clock;
+import atmmachine.enums.AuthorizationStatus;
+import atmmachine.models.BankAccount;
+import atmmachine.services.BankService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// One issuer behind the switch. Calls run on the issuer's own connection pool and
+// need a permit to start; when every connection is busy the request is refused at
+// once, so a slow issuer cannot tie up the calling terminal threads.
+public class IssuerEndpoint {
+    private final String name;
+    private final BankService bankService;
+    private final boolean onUs;
+    private final long timeoutMillis;
+    private final long simulatedLatencyMillis;
+    private final Semaphore connections;
+    private final ExecutorService pool;
+    private final CircuitBreaker circuitBreaker;
+
+    public IssuerEndpoint(String name, BankService bankService, boolean onUs, int poolSize,
+                          long timeoutMillis, long simulatedLatencyMillis, CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.bankService = bankService;
+        this.onUs = onUs;
+        this.timeoutMillis = timeoutMillis;
+        this.simulatedLatencyMillis = simulatedLatencyMillis;
+        this.connections = new Semaphore(poolSize);
+        this.pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "issuer-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    // Local issuer with no network hop: default pool, one-second timeout, no added latency.
+    public static IssuerEndpoint local(String name, BankService bankService, Clock clock) {
+        return new IssuerEndpoint(name, bankService, true, 4, 1_000, 0, new CircuitBreaker(5, 30_000, clock));
+    }
+
+    public AuthorizationResult authorize(String accountNumber, String pin) {
+        return authorizeAsync(accountNumber, pin).join();
+    }
+
+    // Completes on the issuer's pool (or at once when refused), so callers can compose
+    // on the result without parking a thread while the issuer works.
+    public CompletableFuture<AuthorizationResult> authorizeAsync(String accountNumber, String pin) {
+        // Take the connection first: the breaker hands out a single half-open trial, and
+        // once allowRequest() grants it the call must go out and record an outcome.
+        if (!connections.tryAcquire()) {
+            return CompletableFuture.completedFuture(unavailable());
+        }
+        if (!circuitBreaker.allowRequest()) {
+            connections.release();
+            return CompletableFuture.completedFuture(unavailable());
+        }
+
+        CompletableFuture<AuthorizationResult> call;
+        try {
+            call = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return validate(accountNumber, pin);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                } finally {
+                    connections.release();
+                }
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            connections.release();
+            circuitBreaker.recordFailure();
+            return CompletableFuture.completedFuture(unavailable());
+        }
+
+        return call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).handle((result, error) -> {
+            if (error == null) {
+                circuitBreaker.recordSuccess();
+                return result;
+            }
+            circuitBreaker.recordFailure();
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            AuthorizationStatus status = cause instanceof TimeoutException
+                ? AuthorizationStatus.TIMEOUT : AuthorizationStatus.ISSUER_UNAVAILABLE;
+            return new AuthorizationResult(status, null, name);
+        });
+    }
+
+    private AuthorizationResult unavailable() {
+        return new AuthorizationResult(AuthorizationStatus.ISSUER_UNAVAILABLE, null, name);
+    }
+
+    private AuthorizationResult validate(String accountNumber, String pin) throws InterruptedException {
+        if (simulatedLatencyMillis > 0) {
+            Thread.sleep(simulatedLatencyMillis);
+        }
+        BankAccount account = bankService.getAccount(accountNumber);
+        if (account == null) {
+            return new AuthorizationResult(AuthorizationStatus.ACCOUNT_NOT_FOUND, null, name);
+        }
+        if (account.validatePin(pin)) {
+            return new AuthorizationResult(AuthorizationStatus.APPROVED, account, name);
+        }
+        AuthorizationStatus status = account.isLocked() ? AuthorizationStatus.ACCOUNT_LOCKED
+            : AuthorizationStatus.INVALID_PIN;
+        return new AuthorizationResult(status, null, name);
+    }
+
+    public String getName() { return name; }
+    public BankService getBankService() { return bankService; }
+    public boolean isOnUs() { return onUs; }
+    public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,42 @@
+package atmmachine.network;
+
+import atmmachine.enums.AuthorizationStatus;
+import atmmachine.models.Card;
+
+import java.util.concurrent.CompletableFuture;
+
+public class NetworkSwitch {
+    private final BinRoutingTable routingTable = new BinRoutingTable();
+    private final IssuerEndpoint onUsIssuer;
+
+    public NetworkSwitch(IssuerEndpoint onUsIssuer) {
+        this.onUsIssuer = onUsIssuer;
+    }
+
+    public void addRoute(int lowBin, int highBin, IssuerEndpoint issuer) {
+        routingTable.addRange(lowBin, highBin, issuer);
+    }
+
+    // Cards with no matching BIN range are treated as on-us when an on-us issuer is set.
+    // A malformed card number has no BIN and is never routed, not even on-us.
+    public AuthorizationResult authorize(Card card, String pin) {
+        return authorizeAsync(card, pin).join();
+    }
+
+    public CompletableFuture<AuthorizationResult> authorizeAsync(Card card, String pin) {
+        IssuerEndpoint issuer = routeFor(card);
+        if (issuer == null) {
+            return CompletableFuture.completedFuture(new AuthorizationResult(AuthorizationStatus.NO_ROUTE, null, null));
+        }
+        return issuer.authorizeAsync(card.getAccountNumber(), pin);
+    }
+
+    public IssuerEndpoint routeFor(Card card) {
+        int bin = card.getBin();
+        if (bin == Card.INVALID_BIN) {
+            return null;
+        }
+        IssuerEndpoint issuer = routingTable.route(bin);
+        return issuer != null ? issuer : onUsIssuer;
+    }
+}
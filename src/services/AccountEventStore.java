@@ -0,0 +1,151 @@
+package atmmachine.services;
+
+import atmmachine.models.AccountEvent;
+import atmmachine.models.AccountState;
+import atmmachine.models.BankAccount;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AccountEventStore implements BankAccount.EventListener {
+    private final Map<String, EventStream> streams = new ConcurrentHashMap<>();
+    private final List<AccountProjection> projections = new CopyOnWriteArrayList<>();
+    private static final long ENQUEUE_RETRY_MILLIS = 100;
+
+    private final BlockingQueue<AccountEvent> pending;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong projected = new AtomicLong();
+    private final int snapshotInterval;
+    private final BalanceProjection balances = new BalanceProjection();
+    private final HistoryProjection history;
+    private final Thread projector;
+    private volatile boolean running = true;
+
+    public AccountEventStore(int snapshotInterval, int queueCapacity, int statementSize) {
+        if (snapshotInterval <= 0 || queueCapacity <= 0 || statementSize <= 0) {
+            throw new IllegalArgumentException("Snapshot interval, queue capacity and statement size must be positive.");
+        }
+        this.snapshotInterval = snapshotInterval;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.history = new HistoryProjection(statementSize);
+        projections.add(balances);
+        projections.add(history);
+
+        // A single projector thread applies events in append order, so projections
+        // are eventually consistent and readers never wait on account monitors.
+        this.projector = new Thread(this::runProjector, "atm-event-projector");
+        projector.setDaemon(true);
+        projector.start();
+    }
+
+    public void attach(BankAccount account) {
+        account.setEventListener(this);
+    }
+
+    public void addProjection(AccountProjection projection) {
+        projections.add(projection);
+    }
+
+    @Override
+    public void onEvent(AccountEvent event) {
+        streams.computeIfAbsent(event.getAccountNumber(), account -> new EventStream())
+            .append(event, snapshotInterval);
+        // A full queue slows writers down to the projector's pace instead of growing
+        // without bound. The wait is timed and re-checks running, because the caller
+        // holds the account monitor and must not be parked by a stopped projector.
+        try {
+            while (running) {
+                if (pending.offer(event, ENQUEUE_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+                    appended.incrementAndGet();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        projector.interrupt();
+    }
+
+    public BalanceProjection getBalanceProjection() {
+        return balances;
+    }
+
+    public HistoryProjection getHistoryProjection() {
+        return history;
+    }
+
+    // Rebuilds an account from its latest snapshot plus the events appended after it.
+    public AccountState replay(String accountNumber) {
+        EventStream stream = streams.get(accountNumber);
+        return stream == null ? AccountState.EMPTY : stream.replay();
+    }
+
+    public List<AccountEvent> getEvents(String accountNumber) {
+        EventStream stream = streams.get(accountNumber);
+        return stream == null ? new ArrayList<>() : stream.events();
+    }
+
+    public boolean isCaughtUp() {
+        return projected.get() == appended.get();
+    }
+
+    private void runProjector() {
+        while (running) {
+            AccountEvent event;
+            try {
+                event = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (AccountProjection projection : projections) {
+                try {
+                    projection.apply(event);
+                } catch (RuntimeException e) {
+                    System.out.println("Projection " + projection.getClass().getSimpleName()
+                        + " failed on " + event + ": " + e);
+                }
+            }
+            projected.incrementAndGet();
+        }
+    }
+
+    private static class EventStream {
+        private final List<AccountEvent> events = new ArrayList<>();
+        private AccountState snapshot = AccountState.EMPTY;
+        private int snapshotIndex;
+
+        synchronized void append(AccountEvent event, int snapshotInterval) {
+            events.add(event);
+            if (events.size() - snapshotIndex >= snapshotInterval) {
+                snapshot = fold(snapshot, snapshotIndex, events.size());
+                snapshotIndex = events.size();
+            }
+        }
+
+        synchronized AccountState replay() {
+            return fold(snapshot, snapshotIndex, events.size());
+        }
+
+        synchronized List<AccountEvent> events() {
+            return new ArrayList<>(events);
+        }
+
+        private AccountState fold(AccountState state, int from, int to) {
+            for (int i = from; i < to; i++) {
+                state = state.apply(events.get(i));
+            }
+            return state;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package atmmachine.services;
+
+import atmmachine.models.AccountEvent;
+
+public interface AccountProjection {
+    void apply(AccountEvent event);
+}
@@ -0,0 +1,25 @@
+package atmmachine.services;
+
+import atmmachine.models.AccountEvent;
+import atmmachine.models.AccountState;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BalanceProjection implements AccountProjection {
+    private final Map<String, AccountState> views = new ConcurrentHashMap<>();
+
+    @Override
+    public void apply(AccountEvent event) {
+        views.merge(event.getAccountNumber(), AccountState.EMPTY.apply(event),
+            (current, ignored) -> current.apply(event));
+    }
+
+    public AccountState getView(String accountNumber) {
+        return views.getOrDefault(accountNumber, AccountState.EMPTY);
+    }
+
+    public double getBalance(String accountNumber) {
+        return getView(accountNumber).getBalance();
+    }
+}
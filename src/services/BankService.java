@@ -1,18 +1,131 @@
 package atmmachine.services;
 
+import atmmachine.components.CashDispenser;
+import atmmachine.components.Clock;
 import atmmachine.models.BankAccount;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class BankService {
     private Map<String, BankAccount> accounts;
+    private AccountEventStore eventStore;
+    private final Clock clock;
+    // Multi-account operations hold the read lock; a snapshot cut takes the write lock
+    // just long enough to start a new epoch, so no transfer is ever half inside a cut.
+    private final ReadWriteLock ledgerLock = new ReentrantReadWriteLock();
+    private volatile long snapshotEpoch;
+
+    public static class SnapshotCut {
+        private final long epoch;
+        private final List<BankAccount> accounts;
+        private final int[] inventory;
+
+        SnapshotCut(long epoch, List<BankAccount> accounts, int[] inventory) {
+            this.epoch = epoch;
+            this.accounts = accounts;
+            this.inventory = inventory;
+        }
+
+        public long getEpoch() { return epoch; }
+        public List<BankAccount> getAccounts() { return accounts; }
+        public int[] getInventory() { return inventory; }
+    }
 
     public BankService() {
-        this.accounts = new HashMap<>();
+        this(Clock.SYSTEM);
+    }
+
+    public BankService(Clock clock) {
+        this.accounts = new ConcurrentHashMap<>();
+        this.clock = clock;
+    }
+
+    public BankService(int expectedAccounts) {
+        this(expectedAccounts, Clock.SYSTEM);
+    }
+
+    public BankService(int expectedAccounts, Clock clock) {
+        this.accounts = new ConcurrentHashMap<>(expectedAccounts);
+        this.clock = clock;
     }
 
     public void addAccount(BankAccount account) {
-        accounts.put(account.getAccountNumber(), account);
+        account.setClock(clock);
+        account.setSnapshotEpoch(this::currentSnapshotEpoch);
+        ledgerLock.readLock().lock();
+        try {
+            accounts.put(account.getAccountNumber(), account);
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+        if (eventStore != null) {
+            eventStore.attach(account);
+        }
+    }
+
+    public void setEventStore(AccountEventStore eventStore) {
+        this.eventStore = eventStore;
+        for (BankAccount account : accounts.values()) {
+            eventStore.attach(account);
+        }
+    }
+
+    public AccountEventStore getEventStore() {
+        return eventStore;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public boolean transfer(BankAccount source, BankAccount target, double amount) {
+        ledgerLock.readLock().lock();
+        try {
+            if (!source.withdraw(amount)) {
+                return false;
+            }
+            target.deposit(amount);
+            return true;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    // Debit and dispense as one step under the ledger read lock, so a snapshot cut sees
+    // both or neither. If the notes cannot be dispensed after all, the debit is reversed.
+    public boolean withdrawCash(BankAccount account, CashDispenser cashDispenser, double amount) {
+        ledgerLock.readLock().lock();
+        try {
+            if (!account.withdraw(amount)) {
+                return false;
+            }
+            if (cashDispenser.dispense(amount) == null) {
+                account.deposit(amount);
+                return false;
+            }
+            return true;
+        } finally {
+            ledgerLock.readLock().unlock();
+        }
+    }
+
+    public SnapshotCut beginSnapshotCut(CashDispenser cashDispenser) {
+        ledgerLock.writeLock().lock();
+        try {
+            snapshotEpoch++;
+            return new SnapshotCut(snapshotEpoch, new ArrayList<>(accounts.values()), cashDispenser.getCounts());
+        } finally {
+            ledgerLock.writeLock().unlock();
+        }
+    }
+
+    private long currentSnapshotEpoch() {
+        return snapshotEpoch;
     }
 
     public BankAccount getAccount(String accountNumber) {
@@ -22,4 +135,12 @@ public class BankService {
     public boolean accountExists(String accountNumber) {
         return accounts.containsKey(accountNumber);
     }
+
+    public Collection<BankAccount> getAccounts() {
+        return accounts.values();
+    }
+
+    public int getAccountCount() {
+        return accounts.size();
+    }
 }
@@ -0,0 +1,187 @@
+package atmmachine.services;
+
+import atmmachine.enums.TransactionStatus;
+import atmmachine.enums.TransactionType;
+import atmmachine.models.BankAccount;
+import atmmachine.models.BatchReport;
+import atmmachine.models.Transaction;
+import atmmachine.models.TransferInstruction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public class BulkTransactionService {
+    private final BankService bankService;
+    private final ExecutorService workers;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger batchCounter = new AtomicInteger();
+
+    public BulkTransactionService(BankService bankService, int parallelism) {
+        this.bankService = bankService;
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "atm-bulk-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Reads instructions in windows of windowSize, so an unbounded stream never has to
+    // be held in memory. Results are handed to resultSink as they complete, one at a time.
+    public void process(Stream<TransferInstruction> instructions, int windowSize,
+                        Consumer<Transaction> resultSink, Consumer<BatchReport> reportSink) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be at least 1.");
+        }
+        Iterator<TransferInstruction> iterator = instructions.iterator();
+        List<TransferInstruction> window = new ArrayList<>(windowSize);
+
+        while (iterator.hasNext()) {
+            window.add(iterator.next());
+            if (window.size() == windowSize || !iterator.hasNext()) {
+                for (List<TransferInstruction> batch : planBatches(window)) {
+                    reportSink.accept(executeBatch(batch, resultSink));
+                }
+                window.clear();
+            }
+        }
+    }
+
+    // Places each instruction in the batch after the last one that touched either of its
+    // accounts: batches never share an account, and per-account order is preserved.
+    private List<List<TransferInstruction>> planBatches(List<TransferInstruction> window) {
+        List<List<TransferInstruction>> batches = new ArrayList<>();
+        Map<String, Integer> lastBatch = new HashMap<>();
+
+        for (TransferInstruction instruction : window) {
+            // Invalid instructions touch no account, so they can go in the first batch.
+            String source = instruction == null ? null : instruction.getSourceAccount();
+            String target = instruction == null ? null : instruction.getTargetAccount();
+            int batchIndex = 1 + Math.max(
+                source == null ? -1 : lastBatch.getOrDefault(source, -1),
+                target == null ? -1 : lastBatch.getOrDefault(target, -1));
+            if (batchIndex == batches.size()) {
+                batches.add(new ArrayList<>());
+            }
+            batches.get(batchIndex).add(instruction);
+            if (source != null) {
+                lastBatch.put(source, batchIndex);
+            }
+            if (target != null) {
+                lastBatch.put(target, batchIndex);
+            }
+        }
+        return batches;
+    }
+
+    private BatchReport executeBatch(List<TransferInstruction> batch, Consumer<Transaction> resultSink) {
+        long start = System.nanoTime();
+        List<Future<Transaction>> futures = new ArrayList<>(batch.size());
+        for (TransferInstruction instruction : batch) {
+            futures.add(workers.submit(() -> execute(instruction)));
+        }
+
+        int succeeded = 0;
+        int failed = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            Transaction transaction;
+            try {
+                transaction = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Bulk processing interrupted.", e);
+            } catch (ExecutionException e) {
+                // One bad instruction is reported as a failure; the rest of the stream goes on.
+                transaction = rejected(batch.get(i), "Instruction failed: " + e.getCause());
+            }
+            if (transaction.getStatus() == TransactionStatus.SUCCESS) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+            resultSink.accept(transaction);
+        }
+
+        return new BatchReport(batchCounter.incrementAndGet(), batch.size(), succeeded, failed,
+            System.nanoTime() - start);
+    }
+
+    private Transaction execute(TransferInstruction instruction) {
+        String problem = validate(instruction);
+        if (problem != null) {
+            return rejected(instruction, problem);
+        }
+
+        String transactionId = "BULK" + sequence.incrementAndGet();
+        Transaction transaction;
+        BankAccount target = bankService.getAccount(instruction.getTargetAccount());
+        boolean success = false;
+
+        // Unknown account numbers are left out of the record so they are never interned.
+        if (instruction.getType() == TransactionType.DEPOSIT) {
+            transaction = new Transaction(transactionId, TransactionType.DEPOSIT, instruction.getAmount(),
+                target == null ? null : target.getAccountNumber(), null, bankService.getClock().currentTimeMillis());
+            if (target == null) {
+                transaction.setDescription("Account not found: " + instruction.getTargetAccount());
+            } else {
+                success = target.deposit(instruction.getAmount());
+            }
+        } else {
+            BankAccount source = bankService.getAccount(instruction.getSourceAccount());
+            transaction = new Transaction(transactionId, TransactionType.TRANSFER, instruction.getAmount(),
+                source == null ? null : source.getAccountNumber(), target == null ? null : target.getAccountNumber(),
+                bankService.getClock().currentTimeMillis());
+            if (source == null || target == null) {
+                transaction.setDescription("Account not found.");
+            } else if (bankService.transfer(source, target, instruction.getAmount())) {
+                success = true;
+            } else {
+                transaction.setDescription("Insufficient funds or invalid amount.");
+            }
+        }
+
+        transaction.setStatus(success ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
+        return transaction;
+    }
+
+    private String validate(TransferInstruction instruction) {
+        if (instruction == null) {
+            return "Missing instruction.";
+        }
+        if (instruction.getType() != TransactionType.DEPOSIT && instruction.getType() != TransactionType.TRANSFER) {
+            return "Unsupported instruction type: " + instruction.getType();
+        }
+        if (instruction.getTargetAccount() == null) {
+            return "Missing target account.";
+        }
+        if (instruction.getType() == TransactionType.TRANSFER && instruction.getSourceAccount() == null) {
+            return "Missing source account.";
+        }
+        return null;
+    }
+
+    private Transaction rejected(TransferInstruction instruction, String reason) {
+        TransactionType type = instruction == null || instruction.getType() == null
+            ? TransactionType.TRANSFER : instruction.getType();
+        double amount = instruction == null ? 0 : instruction.getAmount();
+        Transaction transaction = new Transaction("BULK" + sequence.incrementAndGet(), type, amount, null, null,
+            bankService.getClock().currentTimeMillis());
+        transaction.setDescription(reason);
+        transaction.setStatus(TransactionStatus.FAILED);
+        return transaction;
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,210 @@
+package atmmachine.services;
+
+import atmmachine.components.CashDispenser;
+import atmmachine.components.Clock;
+import atmmachine.models.ReplenishmentOrder;
+import atmmachine.models.ReplenishmentPlan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CashForecastService {
+    private static final int[] DENOMINATIONS = CashDispenser.getDenominations();
+
+    private final Map<String, TerminalForecast> terminals = new ConcurrentHashMap<>();
+    private final long smoothingWindowMillis;
+    private final Clock clock;
+
+    public CashForecastService(long smoothingWindowMillis) {
+        this(smoothingWindowMillis, Clock.SYSTEM);
+    }
+
+    public CashForecastService(long smoothingWindowMillis, Clock clock) {
+        if (smoothingWindowMillis <= 0) {
+            throw new IllegalArgumentException("Smoothing window must be positive.");
+        }
+        this.smoothingWindowMillis = smoothingWindowMillis;
+        this.clock = clock;
+    }
+
+    public void registerTerminal(String terminalId, CashDispenser dispenser) {
+        TerminalForecast forecast = new TerminalForecast(dispenser.getCounts());
+        terminals.put(terminalId, forecast);
+        dispenser.setDispenseListener(new CashDispenser.DispenseListener() {
+            @Override
+            public void onDispense(int denomination, int count, int remaining) {
+                forecast.record(indexOf(denomination), count, remaining, clock.currentTimeMillis(),
+                    smoothingWindowMillis);
+            }
+
+            @Override
+            public void onRefill(int[] counts) {
+                forecast.refill(counts);
+            }
+        });
+    }
+
+    public void recordDispense(String terminalId, int denomination, int count, int remaining, long timestampMillis) {
+        TerminalForecast forecast = terminals.get(terminalId);
+        int index = indexOf(denomination);
+        if (forecast == null || index < 0) {
+            return;
+        }
+        forecast.record(index, count, remaining, timestampMillis, smoothingWindowMillis);
+    }
+
+    public void recordReplenishment(String terminalId, int[] loadedCounts) {
+        TerminalForecast forecast = terminals.get(terminalId);
+        if (forecast != null) {
+            forecast.refill(loadedCounts);
+        }
+    }
+
+    // Notes per hour for each denomination, in CashDispenser denomination order.
+    public double[] getDepletionRates(String terminalId) {
+        TerminalForecast forecast = terminals.get(terminalId);
+        if (forecast == null) {
+            return new double[DENOMINATIONS.length];
+        }
+        double[] rates = forecast.rates();
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] *= 3_600_000.0;
+        }
+        return rates;
+    }
+
+    public long predictTimeToEmptyMillis(String terminalId) {
+        TerminalForecast forecast = terminals.get(terminalId);
+        return forecast == null ? Long.MAX_VALUE
+            : forecast.timeToEmptyMillis(clock.currentTimeMillis(), smoothingWindowMillis);
+    }
+
+    public ReplenishmentPlan planReplenishment(long nowMillis, long horizonMillis, long budgetMillis) {
+        long start = System.nanoTime();
+        long deadline = start + budgetMillis * 1_000_000L;
+        List<ReplenishmentOrder> orders = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger evaluated = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+
+        terminals.entrySet().parallelStream().forEach(entry -> {
+            if (System.nanoTime() > deadline) {
+                skipped.incrementAndGet();
+                return;
+            }
+            evaluated.incrementAndGet();
+            ReplenishmentOrder order = entry.getValue().plan(entry.getKey(), nowMillis, horizonMillis,
+                smoothingWindowMillis);
+            if (order != null) {
+                orders.add(order);
+            }
+        });
+
+        List<ReplenishmentOrder> schedule = new ArrayList<>(orders);
+        schedule.sort(Comparator.comparingLong(ReplenishmentOrder::getDueAtMillis));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+        return new ReplenishmentPlan(schedule, evaluated.get(), skipped.get(), elapsedMillis);
+    }
+
+    public int getTerminalCount() {
+        return terminals.size();
+    }
+
+    private static int indexOf(int denomination) {
+        for (int i = 0; i < DENOMINATIONS.length; i++) {
+            if (DENOMINATIONS[i] == denomination) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class TerminalForecast {
+        private final int[] capacity;
+        private final int[] remaining;
+        private final double[] ratePerMilli;
+        private final long[] lastEventMillis;
+
+        TerminalForecast(int[] loadedCounts) {
+            this.capacity = loadedCounts.clone();
+            this.remaining = loadedCounts.clone();
+            this.ratePerMilli = new double[loadedCounts.length];
+            this.lastEventMillis = new long[loadedCounts.length];
+        }
+
+        // Time-weighted EWMA: the longer the gap since the previous event, the more the
+        // new observation counts, so the estimate does not depend on event frequency.
+        synchronized void record(int index, int count, int remainingNotes, long timestampMillis, long windowMillis) {
+            remaining[index] = remainingNotes;
+            long last = lastEventMillis[index];
+            lastEventMillis[index] = timestampMillis;
+            if (last == 0) {
+                return;
+            }
+            long elapsed = Math.max(1, timestampMillis - last);
+            double observed = (double) count / elapsed;
+            double alpha = 1.0 - Math.exp(-(double) elapsed / windowMillis);
+            ratePerMilli[index] += alpha * (observed - ratePerMilli[index]);
+        }
+
+        // A refill may be a partial top-up, so the target level only ever grows.
+        synchronized void refill(int[] loadedCounts) {
+            for (int i = 0; i < capacity.length; i++) {
+                capacity[i] = Math.max(capacity[i], loadedCounts[i]);
+                remaining[i] = loadedCounts[i];
+            }
+        }
+
+        synchronized double[] rates() {
+            return ratePerMilli.clone();
+        }
+
+        synchronized long timeToEmptyMillis(long nowMillis, long windowMillis) {
+            long earliest = Long.MAX_VALUE;
+            for (int i = 0; i < remaining.length; i++) {
+                // A denomination the terminal is not stocked with cannot run out.
+                if (capacity[i] == 0) {
+                    continue;
+                }
+                earliest = Math.min(earliest, timeToEmpty(i, nowMillis, windowMillis));
+            }
+            return earliest;
+        }
+
+        synchronized ReplenishmentOrder plan(String terminalId, long nowMillis, long horizonMillis, long windowMillis) {
+            long earliest = timeToEmptyMillis(nowMillis, windowMillis);
+            if (earliest > horizonMillis) {
+                return null;
+            }
+            int[] toLoad = new int[capacity.length];
+            for (int i = 0; i < capacity.length; i++) {
+                toLoad[i] = Math.max(0, capacity[i] - remaining[i]);
+            }
+            return new ReplenishmentOrder(terminalId, nowMillis + earliest, DENOMINATIONS.clone(), toLoad);
+        }
+
+        // Measured from nowMillis. Over the quiet gap since the last event the rate decays
+        // as if zero usage had been observed, and the notes expected to have gone out at
+        // that decaying rate are taken off the last reported count.
+        private long timeToEmpty(int index, long nowMillis, long windowMillis) {
+            if (remaining[index] <= 0) {
+                return 0;
+            }
+            if (ratePerMilli[index] <= 0) {
+                return Long.MAX_VALUE;
+            }
+            long gap = lastEventMillis[index] == 0 ? 0 : Math.max(0, nowMillis - lastEventMillis[index]);
+            double decay = Math.exp(-(double) gap / windowMillis);
+            double rate = ratePerMilli[index] * decay;
+            double projected = remaining[index] - ratePerMilli[index] * windowMillis * (1 - decay);
+            if (projected <= 0) {
+                return 0;
+            }
+            return rate <= 0 ? Long.MAX_VALUE : (long) (projected / rate);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package atmmachine.services;
+
+import atmmachine.enums.CheckStatus;
+import atmmachine.models.BankAccount;
+import atmmachine.models.CheckDeposit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Staged pipeline for deposited checks: validation -> duplicate-detection hashing ->
+// hold, after which the availability scheduler posts the funds. Stages are connected
+// by bounded queues and submit() never blocks, so a backlog of check images cannot
+// stall cash sessions on the terminal.
+public class CheckClearingService {
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final long POLL_MILLIS = 100;
+
+    private final BankService bankService;
+    private final long maxImageBytes;
+    private final long holdMillis;
+    private final BlockingQueue<CheckDeposit> validationQueue;
+    private final BlockingQueue<CheckDeposit> hashingQueue;
+    private final Set<String> seenImages = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService availability;
+    private final List<Thread> workers = new CopyOnWriteArrayList<>();
+    private final Queue<CheckDeposit> stranded = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    public CheckClearingService(BankService bankService, int queueCapacity, int hashWorkers,
+                                long maxImageBytes, long holdMillis) {
+        this.bankService = bankService;
+        this.maxImageBytes = maxImageBytes;
+        this.holdMillis = holdMillis;
+        this.validationQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.hashingQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.availability = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "check-availability");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        startWorker("check-validation", this::runValidation);
+        for (int i = 0; i < hashWorkers; i++) {
+            startWorker("check-hashing-" + i, this::runHashing);
+        }
+    }
+
+    public boolean submit(CheckDeposit check) {
+        return running && validationQueue.offer(check);
+    }
+
+    // Workers finish the check in hand and stop. Checks already on hold still post when
+    // their hold expires (plain shutdown keeps delayed tasks). Checks that had not
+    // reached the hold are returned, so the caller can persist or resubmit them.
+    public List<CheckDeposit> shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        availability.shutdown();
+
+        List<CheckDeposit> unprocessed = new ArrayList<>(stranded);
+        validationQueue.drainTo(unprocessed);
+        hashingQueue.drainTo(unprocessed);
+        return unprocessed;
+    }
+
+    private void runValidation() {
+        while (running) {
+            CheckDeposit check = next(validationQueue);
+            if (check == null) {
+                continue;
+            }
+            String problem = validate(check);
+            if (problem != null) {
+                reject(check, CheckStatus.REJECTED, problem);
+                continue;
+            }
+            check.setStatus(CheckStatus.VALIDATED);
+            try {
+                while (!hashingQueue.offer(check, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        stranded.add(check);
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                stranded.add(check);
+                return;
+            }
+        }
+    }
+
+    // Polls rather than blocks so workers notice shutdown without being interrupted,
+    // which would close the channel of a check being hashed.
+    private CheckDeposit next(BlockingQueue<CheckDeposit> queue) {
+        try {
+            return queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            return null;
+        }
+    }
+
+    private String validate(CheckDeposit check) {
+        if (check.getAmount() <= 0) {
+            return "invalid amount";
+        }
+        if (bankService.getAccount(check.getAccountNumber()) == null) {
+            return "account not found";
+        }
+        try {
+            long size = Files.size(check.getImage());
+            if (size == 0) {
+                return "empty image";
+            }
+            if (size > maxImageBytes) {
+                return "image too large";
+            }
+        } catch (IOException e) {
+            return "unreadable image";
+        }
+        return null;
+    }
+
+    private void runHashing() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available.", e);
+        }
+
+        while (running) {
+            CheckDeposit check = next(hashingQueue);
+            if (check == null) {
+                continue;
+            }
+            String hash;
+            try {
+                hash = hash(check, digest, buffer);
+            } catch (IOException e) {
+                reject(check, CheckStatus.REJECTED, "unreadable image");
+                continue;
+            }
+            check.setImageHash(hash);
+            if (!seenImages.add(hash)) {
+                reject(check, CheckStatus.DUPLICATE, "image already deposited");
+                continue;
+            }
+            check.setStatus(CheckStatus.ON_HOLD);
+            availability.schedule(() -> post(check), holdMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private String hash(CheckDeposit check, MessageDigest digest, ByteBuffer buffer) throws IOException {
+        digest.reset();
+        try (FileChannel channel = FileChannel.open(check.getImage(), StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private void post(CheckDeposit check) {
+        BankAccount account = bankService.getAccount(check.getAccountNumber());
+        if (account != null && account.deposit(check.getAmount())) {
+            check.setStatus(CheckStatus.POSTED);
+            discardImage(check);
+            System.out.println("Check funds posted: " + check);
+        } else {
+            reject(check, CheckStatus.REJECTED, "posting failed");
+        }
+    }
+
+    private void reject(CheckDeposit check, CheckStatus status, String reason) {
+        check.setReason(reason);
+        check.setStatus(status);
+        discardImage(check);
+        System.out.println("Check not cleared: " + check);
+    }
+
+    // The hash is all duplicate detection needs once a check is settled, so the spooled
+    // image does not have to stay on the terminal's disk.
+    private void discardImage(CheckDeposit check) {
+        try {
+            Files.deleteIfExists(check.getImage());
+        } catch (IOException e) {
+            System.out.println("Unable to delete check image " + check.getImage() + ": " + e.getMessage());
+        }
+    }
+
+    private void startWorker(String name, Runnable body) {
+        Thread thread = new Thread(body, name);
+        thread.setDaemon(true);
+        workers.add(thread);
+        thread.start();
+    }
+}
@@ -0,0 +1,36 @@
+package atmmachine.services;
+
+import atmmachine.models.AccountEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class HistoryProjection implements AccountProjection {
+    private final Map<String, List<AccountEvent>> statements = new ConcurrentHashMap<>();
+    private final int statementSize;
+
+    public HistoryProjection(int statementSize) {
+        this.statementSize = statementSize;
+    }
+
+    // Each update publishes a new immutable list, so readers never see a partial update.
+    @Override
+    public void apply(AccountEvent event) {
+        statements.compute(event.getAccountNumber(), (account, current) -> {
+            List<AccountEvent> next = new ArrayList<>(statementSize);
+            if (current != null) {
+                int from = Math.max(0, current.size() - statementSize + 1);
+                next.addAll(current.subList(from, current.size()));
+            }
+            next.add(event);
+            return Collections.unmodifiableList(next);
+        });
+    }
+
+    public List<AccountEvent> getMiniStatement(String accountNumber) {
+        return statements.getOrDefault(accountNumber, Collections.emptyList());
+    }
+}
@@ -0,0 +1,93 @@
+package atmmachine.services;
+
+import atmmachine.models.Transaction;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdempotencyCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Every entry gets the same TTL, so insertion order is also expiry order: the
+    // head of this queue is always the next entry to expire or to evict for space.
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    public IdempotencyCache(int maxEntries, long ttlMillis) {
+        if (maxEntries <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and TTL must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public Transaction get(String key, long nowMillis) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis <= nowMillis) {
+            evictExpired(nowMillis);
+            return null;
+        }
+        return entry.transaction;
+    }
+
+    public Transaction putIfAbsent(String key, Transaction transaction, long nowMillis) {
+        evictExpired(nowMillis);
+        Entry entry = new Entry(key, transaction, nowMillis + ttlMillis);
+        Entry existing = entries.putIfAbsent(key, entry);
+        if (existing != null && existing.expiresAtMillis > nowMillis) {
+            return existing.transaction;
+        }
+        if (existing != null) {
+            entries.put(key, entry);
+        }
+        insertionOrder.add(entry);
+        if (size.incrementAndGet() > maxEntries) {
+            evictOldest();
+        }
+        return null;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictExpired(long nowMillis) {
+        Entry head;
+        while ((head = insertionOrder.peek()) != null && head.expiresAtMillis <= nowMillis) {
+            removeHead(head);
+        }
+    }
+
+    private void evictOldest() {
+        Entry head;
+        while (size.get() > maxEntries && (head = insertionOrder.peek()) != null) {
+            removeHead(head);
+        }
+    }
+
+    private void removeHead(Entry head) {
+        if (insertionOrder.remove(head)) {
+            entries.remove(head.key, head);
+            size.decrementAndGet();
+        }
+    }
+
+    private static class Entry {
+        final String key;
+        final Transaction transaction;
+        final long expiresAtMillis;
+
+        Entry(String key, Transaction transaction, long expiresAtMillis) {
+            this.key = key;
+            this.transaction = transaction;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package atmmachine.services;
+
+import atmmachine.components.CashDispenser;
+import atmmachine.components.Clock;
+import atmmachine.models.BankAccount;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+public class SnapshotService {
+    private static final int MAGIC = 0x41544D53; // "ATMS"
+    private static final int VERSION = 2;
+    // Every CHUNK_SIZE-th record offset goes into an index at the end of the file so
+    // restore can decode chunks in parallel.
+    private static final int CHUNK_SIZE = 16_384;
+
+    private final ExecutorService writer;
+    // Serialized form of each account, reused while the account's version is unchanged
+    // so that repeated snapshots only re-encode accounts touched since the last one.
+    // Rebuilt on every pass, so accounts that are no longer in the bank drop out.
+    private Map<BankAccount, CachedRecord> recordCache = new IdentityHashMap<>();
+
+    public SnapshotService() {
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "atm-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<Path> snapshotAsync(BankService bankService, CashDispenser cashDispenser, Path target) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                snapshot(bankService, cashDispenser, target);
+                return target;
+            } catch (IOException e) {
+                throw new IllegalStateException("Snapshot failed: " + e.getMessage(), e);
+            }
+        }, writer);
+    }
+
+    // The cut pauses transfers and cash withdrawals only while the bank starts a new
+    // snapshot epoch and reads the inventory; accounts changed after that write the state
+    // they had at the cut, so a transfer or withdrawal is either wholly in the snapshot
+    // (balances and cash) or not in it at all.
+    public synchronized void snapshot(BankService bankService, CashDispenser cashDispenser, Path target) throws IOException {
+        BankService.SnapshotCut cut = bankService.beginSnapshotCut(cashDispenser);
+        int[] inventory = cut.getInventory();
+        List<BankAccount> accounts = cut.getAccounts();
+        Map<BankAccount, CachedRecord> nextCache = new IdentityHashMap<>(accounts.size() * 2);
+        int[] chunkOffsets = new int[(accounts.size() + CHUNK_SIZE - 1) / CHUNK_SIZE];
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(inventory.length);
+            for (int count : inventory) {
+                out.writeInt(count);
+            }
+
+            out.writeInt(accounts.size());
+            for (int i = 0; i < accounts.size(); i++) {
+                if (i % CHUNK_SIZE == 0) {
+                    chunkOffsets[i / CHUNK_SIZE] = out.size();
+                }
+                out.write(encode(accounts.get(i), cut.getEpoch(), nextCache));
+            }
+
+            int indexOffset = out.size();
+            out.writeInt(chunkOffsets.length);
+            for (int offset : chunkOffsets) {
+                out.writeInt(offset);
+            }
+            out.writeInt(indexOffset);
+        }
+
+        recordCache = nextCache;
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public BankService restore(Path source, CashDispenser cashDispenser) throws IOException {
+        return restore(source, cashDispenser, Clock.SYSTEM);
+    }
+
+    // Returns a new BankService on the given clock, sized for the snapshot's accounts.
+    public BankService restore(Path source, CashDispenser cashDispenser, Clock clock) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return restore(buffer, cashDispenser, clock);
+        }
+    }
+
+    private BankService restore(ByteBuffer buffer, CashDispenser cashDispenser, Clock clock) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not a supported ATM snapshot.");
+        }
+
+        int[] inventory = new int[buffer.getInt()];
+        for (int i = 0; i < inventory.length; i++) {
+            inventory[i] = buffer.getInt();
+        }
+        int accountCount = buffer.getInt();
+
+        ByteBuffer index = buffer.duplicate();
+        index.position(index.getInt(index.limit() - Integer.BYTES));
+        int[] chunkOffsets = new int[index.getInt()];
+        for (int i = 0; i < chunkOffsets.length; i++) {
+            chunkOffsets[i] = index.getInt();
+        }
+
+        BankService bankService = new BankService(accountCount, clock);
+        IntStream.range(0, chunkOffsets.length).parallel().forEach(chunk -> {
+            ByteBuffer records = buffer.duplicate();
+            records.position(chunkOffsets[chunk]);
+            int end = Math.min(accountCount, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                bankService.addAccount(BankAccount.readSnapshot(records));
+            }
+        });
+
+        cashDispenser.restoreInventory(inventory);
+        return bankService;
+    }
+
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    private byte[] encode(BankAccount account, long epoch, Map<BankAccount, CachedRecord> nextCache) throws IOException {
+        long version = account.getVersion();
+        CachedRecord cached = recordCache.get(account);
+        if (cached != null && cached.version == version) {
+            nextCache.put(account, cached);
+            return cached.bytes;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        boolean current = account.writeSnapshot(new DataOutputStream(bytes), epoch);
+        byte[] encoded = bytes.toByteArray();
+        // A record taken from the state saved at the cut is older than the version we read.
+        if (current) {
+            nextCache.put(account, new CachedRecord(version, encoded));
+        }
+        return encoded;
+    }
+    private static class CachedRecord {
+        final long version;
+        final byte[] bytes;
+
+        CachedRecord(long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package atmmachine.services;
+
+import atmmachine.models.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fixed-capacity ring of the terminal's most recent transactions. The journal owns the
+// records it is given; when a slot is overwritten the old record goes back to the pool,
+// so callers must copy() any record they need to keep beyond the journal's capacity.
+public class TransactionJournal {
+    private final Transaction[] ring;
+    private final TransactionPool pool;
+    private long totalRecorded;
+
+    public TransactionJournal(int capacity, TransactionPool pool) {
+        this.ring = new Transaction[capacity];
+        this.pool = pool;
+    }
+
+    public void append(Transaction transaction) {
+        int slot = (int) (totalRecorded % ring.length);
+        Transaction evicted = ring[slot];
+        ring[slot] = transaction;
+        totalRecorded++;
+        if (evicted != null) {
+            pool.release(evicted);
+        }
+    }
+
+    public List<Transaction> recent() {
+        int size = size();
+        List<Transaction> recent = new ArrayList<>(size);
+        for (long i = totalRecorded - size; i < totalRecorded; i++) {
+            recent.add(ring[(int) (i % ring.length)]);
+        }
+        return recent;
+    }
+
+    public int size() {
+        return (int) Math.min(totalRecorded, ring.length);
+    }
+
+    public long getTotalRecorded() {
+        return totalRecorded;
+    }
+}
@@ -0,0 +1,32 @@
+package atmmachine.services;
+
+import atmmachine.models.Transaction;
+
+import java.util.ArrayDeque;
+
+// Per-terminal free list of Transaction records. Not thread-safe: operations on one
+// terminal run one after another (the gateway chains them, possibly on different pool
+// threads, with a happens-before edge between each), so acquire and release never overlap.
+public class TransactionPool {
+    private final ArrayDeque<Transaction> free;
+
+    public TransactionPool(int preallocated) {
+        this.free = new ArrayDeque<>(preallocated);
+        for (int i = 0; i < preallocated; i++) {
+            free.push(new Transaction());
+        }
+    }
+
+    public Transaction acquire() {
+        Transaction transaction = free.poll();
+        return transaction != null ? transaction : new Transaction();
+    }
+
+    public void release(Transaction transaction) {
+        free.push(transaction);
+    }
+
+    public int available() {
+        return free.size();
+    }
+}
@@ -0,0 +1,228 @@
+package atmmachine.simulation;
+
+import atmmachine.ATM;
+import atmmachine.components.CashDispenser;
+import atmmachine.components.Console;
+import atmmachine.enums.CardType;
+import atmmachine.enums.TransactionStatus;
+import atmmachine.enums.TransactionType;
+import atmmachine.models.BankAccount;
+import atmmachine.models.Card;
+import atmmachine.models.Transaction;
+import atmmachine.services.BankService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Date;
+import java.util.SplittableRandom;
+
+// Runs many terminals against one BankService on a single thread. Every choice -- which
+// terminal moves next, which card, PIN, transaction and amount, how far the clock
+// advances -- comes from one seeded generator, so a failing seed replays exactly.
+public class Simulator {
+    private static final long START_MILLIS = 1_700_000_000_000L;
+    private static final long CARD_LIFETIME_MILLIS = 3L * 365 * 24 * 60 * 60 * 1000;
+    private static final int CONSERVATION_CHECK_INTERVAL = 10_000;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final double INITIAL_CASH = new CashDispenser().getTotalCash();
+
+    private final long seed;
+    private final SplittableRandom random;
+    private final VirtualClock clock;
+    private final BankService bankService;
+    private final Card[] cards;
+    private final String[] pins;
+    private final ATM[] terminals;
+    private final int[] phase;
+    private final String[] lastKey;
+
+    private double initialFunds;
+    private double depositedFunds;
+    private long keySequence;
+    private long steps;
+    private long transactions;
+
+    public Simulator(long seed, int terminalCount, int accountCount) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.clock = new VirtualClock(START_MILLIS);
+        this.bankService = new BankService(accountCount, clock);
+        this.cards = new Card[accountCount];
+        this.pins = new String[accountCount];
+        this.terminals = new ATM[terminalCount];
+        this.phase = new int[terminalCount];
+        this.lastKey = new String[terminalCount];
+
+        Date expiry = new Date(START_MILLIS + CARD_LIFETIME_MILLIS);
+        for (int i = 0; i < accountCount; i++) {
+            String accountNumber = "SIM" + i;
+            double balance = 10 * random.nextInt(1, 1000);
+            pins[i] = String.format("%04d", random.nextInt(10_000));
+            bankService.addAccount(new BankAccount(accountNumber, "Sim Holder " + i, balance, pins[i]));
+            cards[i] = new Card(String.format("4%015d", i), "Sim Holder " + i, CardType.DEBIT, expiry, accountNumber);
+            initialFunds += balance;
+        }
+        for (int i = 0; i < terminalCount; i++) {
+            terminals[i] = ATM.createTerminal("SIM-ATM-" + i, "Simulated", bankService, clock);
+        }
+    }
+
+    public void run(long maxSteps) {
+        PrintStream console = System.out;
+        boolean messages = Console.isEnabled();
+        Console.setEnabled(false);
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            while (steps < maxSteps) {
+                clock.advance(random.nextInt(0, 2_000));
+                step(random.nextInt(terminals.length));
+                steps++;
+                if (steps % CONSERVATION_CHECK_INTERVAL == 0) {
+                    checkConservation();
+                }
+            }
+            checkConservation();
+        } finally {
+            Console.setEnabled(messages);
+            System.setOut(console);
+        }
+    }
+
+    private void step(int t) {
+        ATM atm = terminals[t];
+        switch (phase[t]) {
+            case 0: {
+                int cardIndex = random.nextInt(cards.length);
+                atm.insertCard(cards[cardIndex]);
+                phase[t] = atm.getStateHandler().getStateName().equals("CARD_INSERTED") ? 1 : 0;
+                break;
+            }
+            case 1: {
+                int cardIndex = indexOf(atm.getCurrentCard());
+                boolean correct = random.nextInt(100) < 97;
+                atm.enterPin(correct ? pins[cardIndex] : "XXXX");
+                String state = atm.getStateHandler().getStateName();
+                phase[t] = state.equals("PIN_VERIFIED") ? 2 : state.equals("IDLE") ? 0 : 1;
+                break;
+            }
+            case 2:
+                atm.selectTransaction(TYPES[random.nextInt(TYPES.length)]);
+                phase[t] = 3;
+                break;
+            case 3:
+                execute(t, atm);
+                phase[t] = random.nextBoolean() ? 2 : 4;
+                break;
+            default:
+                atm.cancel();
+                phase[t] = 0;
+                break;
+        }
+    }
+
+    private void execute(int t, ATM atm) {
+        BankAccount source = atm.getCurrentAccount();
+        BankAccount target = bankService.getAccount("SIM" + random.nextInt(cards.length));
+        TransactionType type = atm.getSelectedTransactionType();
+        double amount = 10 * random.nextInt(1, 60);
+        boolean retry = lastKey[t] != null && random.nextInt(10) == 0;
+        String key = retry ? lastKey[t] : "K" + (++keySequence);
+
+        double sourceBefore = source.getBalance();
+        double targetBefore = target.getBalance();
+        double cashBefore = atm.getCashDispenser().getTotalCash();
+        long historyBefore = atm.getTransactionJournal().getTotalRecorded();
+
+        Transaction result = atm.executeTransaction(amount, target.getAccountNumber(), key);
+        lastKey[t] = key;
+        transactions++;
+
+        double sourceDelta = source.getBalance() - sourceBefore;
+        double targetDelta = target.getBalance() - targetBefore;
+        double cashDelta = atm.getCashDispenser().getTotalCash() - cashBefore;
+
+        if (result == null) {
+            fail("no result for " + type + " on " + atm.getAtmId());
+        }
+        boolean replayed = atm.getTransactionJournal().getTotalRecorded() == historyBefore;
+        if (replayed && !retry) {
+            fail("fresh key " + key + " was treated as a replay on " + atm.getAtmId());
+        }
+        boolean applied = result.getStatus() == TransactionStatus.SUCCESS && !replayed;
+
+        double expectedSource = 0;
+        double expectedTarget = 0;
+        double expectedCash = 0;
+        if (applied) {
+            switch (result.getType()) {
+                case WITHDRAWAL:
+                    expectedSource = -amount;
+                    expectedCash = -amount;
+                    break;
+                case DEPOSIT:
+                    expectedSource = amount;
+                    depositedFunds += amount;
+                    break;
+                case TRANSFER:
+                    expectedSource = -amount;
+                    expectedTarget = amount;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (source == target) {
+            expectedSource += expectedTarget;
+            expectedTarget = expectedSource;
+        }
+
+        if (sourceDelta != expectedSource || targetDelta != expectedTarget || cashDelta != expectedCash) {
+            fail(String.format("%s %s $%.2f (%s, replayed=%s): source %+.2f, target %+.2f, cash %+.2f",
+                atm.getAtmId(), type, amount, result.getStatus(), replayed, sourceDelta, targetDelta, cashDelta));
+        }
+        if (source.getBalance() < 0) {
+            fail("negative balance on " + source.getAccountNumber());
+        }
+    }
+
+    private void checkConservation() {
+        double balances = 0;
+        for (BankAccount account : bankService.getAccounts()) {
+            balances += account.getBalance();
+        }
+        double dispensed = 0;
+        for (ATM atm : terminals) {
+            dispensed += INITIAL_CASH - atm.getCashDispenser().getTotalCash();
+        }
+        double expected = initialFunds + depositedFunds - dispensed;
+        if (Math.abs(balances - expected) > 0.005) {
+            fail(String.format("money not conserved: balances $%.2f, expected $%.2f", balances, expected));
+        }
+    }
+
+    private int indexOf(Card card) {
+        return Integer.parseInt(card.getAccountNumber().substring(3));
+    }
+
+    private void fail(String message) {
+        throw new IllegalStateException("Invariant violated at step " + steps + " (seed=" + seed + "): " + message);
+    }
+
+    public long getSteps() { return steps; }
+    public long getTransactions() { return transactions; }
+
+    // Usage: Simulator <seed> [terminals] [accounts] [steps]
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : System.nanoTime();
+        int terminalCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int accountCount = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        long maxSteps = args.length > 3 ? Long.parseLong(args[3]) : 1_000_000;
+
+        Simulator simulator = new Simulator(seed, terminalCount, accountCount);
+        long start = System.nanoTime();
+        simulator.run(maxSteps);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Seed %d: %d steps, %d transactions in %.2fs (%.0f txn/s), all invariants held.%n",
+            seed, simulator.getSteps(), simulator.getTransactions(), seconds, simulator.getTransactions() / seconds);
+    }
+}
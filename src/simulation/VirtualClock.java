@@ -0,0 +1,23 @@
+package atmmachine.simulation;
+
+import atmmachine.components.Clock;
+
+public class VirtualClock implements Clock {
+    private long nowMillis;
+
+    public VirtualClock(long startMillis) {
+        this.nowMillis = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return nowMillis;
+    }
+
+    public void advance(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Virtual time cannot go backwards.");
+        }
+        nowMillis += millis;
+    }
+}
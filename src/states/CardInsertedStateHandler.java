@@ -1,30 +1,45 @@
 package atmmachine.states;
 
 import atmmachine.ATM;
+import atmmachine.components.Console;
 import atmmachine.enums.TransactionType;
 import atmmachine.models.BankAccount;
 import atmmachine.models.Card;
+import atmmachine.network.AuthorizationResult;
+import atmmachine.tracing.ProcessingPhaseEvent;
+import atmmachine.tracing.Tracing;
 
 public class CardInsertedStateHandler implements ATMStateHandler {
     @Override
     public void insertCard(ATM atm, Card card) {
-        System.out.println("Card already inserted.");
+        Console.println("Card already inserted.");
     }
 
     @Override
     public void enterPin(ATM atm, String pin) {
+        if (atm.getNetworkSwitch() != null) {
+            enterPinViaSwitch(atm, pin);
+            return;
+        }
+
         BankAccount account = atm.getBankService().getAccount(atm.getCurrentCard().getAccountNumber());
 
         if (account == null) {
-            System.out.println("Account not found.");
+            Console.println("Account not found.");
             atm.ejectCard();
             atm.setStateHandler(new IdleStateHandler());
             return;
         }
 
-        if (account.validatePin(pin)) {
+        ProcessingPhaseEvent phase = Tracing.beginPhase(atm, "pinValidation", null);
+        boolean valid = account.validatePin(pin);
+        Tracing.endPhase(phase, valid);
+
+        if (valid) {
             atm.setCurrentAccount(account);
-            System.out.println("PIN verified. Welcome, " + account.getHolderName() + "!");
+            if (Console.isEnabled()) {
+                Console.println("PIN verified. Welcome, " + account.getHolderName() + "!");
+            }
             atm.setStateHandler(new PinVerifiedStateHandler());
         } else if (account.isLocked()) {
             atm.ejectCard();
@@ -32,14 +47,52 @@ public class CardInsertedStateHandler implements ATMStateHandler {
         }
     }
 
+    private void enterPinViaSwitch(ATM atm, String pin) {
+        ProcessingPhaseEvent phase = Tracing.beginPhase(atm, "pinValidation", null);
+        AuthorizationResult result = atm.getNetworkSwitch().authorize(atm.getCurrentCard(), pin);
+        Tracing.endPhase(phase, result.isApproved());
+        applyAuthorization(atm, result);
+    }
+
+    // Applies an issuer decision obtained elsewhere, e.g. asynchronously by the gateway.
+    public void applyAuthorization(ATM atm, AuthorizationResult result) {
+        switch (result.getStatus()) {
+            case APPROVED:
+                atm.setCurrentAccount(result.getAccount());
+                if (Console.isEnabled()) {
+                    Console.println("PIN verified. Welcome, " + result.getAccount().getHolderName() + "!");
+                }
+                atm.setStateHandler(new PinVerifiedStateHandler());
+                break;
+            case INVALID_PIN:
+                break;
+            case ACCOUNT_NOT_FOUND:
+            case NO_ROUTE:
+                Console.println("Account not found.");
+                atm.ejectCard();
+                atm.setStateHandler(new IdleStateHandler());
+                break;
+            case TIMEOUT:
+            case ISSUER_UNAVAILABLE:
+                Console.println("Card issuer unavailable. Please try again later.");
+                atm.ejectCard();
+                atm.setStateHandler(new IdleStateHandler());
+                break;
+            default:
+                atm.ejectCard();
+                atm.setStateHandler(new IdleStateHandler());
+                break;
+        }
+    }
+
     @Override
     public void selectTransaction(ATM atm, TransactionType type) {
-        System.out.println("Please enter your PIN first.");
+        Console.println("Please enter your PIN first.");
     }
 
     @Override
     public void executeTransaction(ATM atm, double amount, String targetAccount) {
-        System.out.println("Please enter your PIN first.");
+        Console.println("Please enter your PIN first.");
     }
 
     @Override
@@ -1,6 +1,7 @@
 package atmmachine.states;
 
 import atmmachine.ATM;
+import atmmachine.components.Console;
 import atmmachine.enums.TransactionType;
 import atmmachine.models.Card;
 
@@ -15,22 +16,22 @@ public class IdleStateHandler implements ATMStateHandler {
 
     @Override
     public void enterPin(ATM atm, String pin) {
-        System.out.println("Please insert your card first.");
+        Console.println("Please insert your card first.");
     }
 
     @Override
     public void selectTransaction(ATM atm, TransactionType type) {
-        System.out.println("Please insert your card first.");
+        Console.println("Please insert your card first.");
     }
 
     @Override
     public void executeTransaction(ATM atm, double amount, String targetAccount) {
-        System.out.println("Please insert your card first.");
+        Console.println("Please insert your card first.");
     }
 
     @Override
     public void cancel(ATM atm) {
-        System.out.println("No transaction in progress.");
+        Console.println("No transaction in progress.");
     }
 
     @Override
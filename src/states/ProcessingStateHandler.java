@@ -1,94 +1,195 @@
 package atmmachine.states;
 
 import atmmachine.ATM;
+import atmmachine.components.Console;
 import atmmachine.enums.TransactionStatus;
 import atmmachine.enums.TransactionType;
+import atmmachine.models.AccountEvent;
+import atmmachine.models.AccountIds;
+import atmmachine.models.AccountState;
 import atmmachine.models.BankAccount;
 import atmmachine.models.Card;
+import atmmachine.models.CheckDeposit;
 import atmmachine.models.Transaction;
+import atmmachine.services.AccountEventStore;
+import atmmachine.tracing.ProcessingPhaseEvent;
+import atmmachine.tracing.Tracing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class ProcessingStateHandler implements ATMStateHandler {
     @Override
     public void insertCard(ATM atm, Card card) {
-        System.out.println("Transaction in progress. Please wait.");
+        Console.println("Transaction in progress. Please wait.");
     }
 
     @Override
     public void enterPin(ATM atm, String pin) {
-        System.out.println("Transaction in progress. Please wait.");
+        Console.println("Transaction in progress. Please wait.");
     }
 
     @Override
     public void selectTransaction(ATM atm, TransactionType type) {
-        System.out.println("Transaction in progress. Please wait.");
+        Console.println("Transaction in progress. Please wait.");
     }
 
     @Override
     public void executeTransaction(ATM atm, double amount, String targetAccount) {
-        System.out.println("Transaction in progress. Please wait.");
+        Console.println("Transaction in progress. Please wait.");
     }
 
     @Override
     public void cancel(ATM atm) {
-        System.out.println("Cannot cancel. Transaction in progress.");
+        Console.println("Cannot cancel. Transaction in progress.");
     }
 
     public void processTransaction(ATM atm, double amount, String targetAccount) {
         TransactionType type = atm.getSelectedTransactionType();
         BankAccount account = atm.getCurrentAccount();
 
-        String transactionId = "TXN" + System.currentTimeMillis();
-        Transaction transaction = new Transaction(transactionId, type, amount,
-            account.getAccountNumber(), targetAccount);
+        // Retries were already answered from the idempotency cache by ATM.
+        String requestKey = atm.getIdempotencyKey() == null ? null : atm.requestKey(atm.getIdempotencyKey());
+
+        // Only accounts the bank knows are interned, so typed-in account numbers cannot
+        // grow the id table.
+        BankAccount targetAcc = targetAccount == null ? null : atm.getBankService().getAccount(targetAccount);
+        long now = atm.getClock().currentTimeMillis();
+        Transaction transaction = atm.getTransactionPool().acquire().init(atm.getTransactionIdPrefix(), atm.nextTransactionNumber(),
+            type, amount, AccountIds.idOf(account.getAccountNumber()),
+            targetAcc == null ? AccountIds.NONE : AccountIds.idOf(targetAcc.getAccountNumber()),
+            now * 1_000_000L);
 
         boolean success = false;
+        boolean queued = false;
+        ProcessingPhaseEvent phase;
 
         switch (type) {
             case BALANCE_INQUIRY:
-                System.out.println("\nBalance for account " + account.getAccountNumber() +
-                    ": $" + String.format("%.2f", account.getBalance()));
+                AccountEventStore events = atm.getBankService().getEventStore();
+                if (events == null) {
+                    if (Console.isEnabled()) {
+                        Console.println("\nBalance for account " + account.getAccountNumber() +
+                            ": $" + String.format("%.2f", account.getBalance()));
+                    }
+                } else {
+                    // Read from the projection so inquiries never take the account monitor.
+                    AccountState view = events.getBalanceProjection().getView(account.getAccountNumber());
+                    if (Console.isEnabled()) {
+                        Console.println("\nBalance for account " + account.getAccountNumber() +
+                            ": $" + String.format("%.2f", view.getBalance()));
+                    }
+                    if (view.getSequence() < account.getEventSequence()) {
+                        Console.println("Recent transactions may not be reflected yet.");
+                    }
+                }
+                success = true;
+                break;
+
+            case MINI_STATEMENT:
+                if (atm.getBankService().getEventStore() == null) {
+                    Console.println("Mini statements are not available at this ATM.");
+                    break;
+                }
+                if (Console.isEnabled()) {
+                    Console.println("\nMini statement for account " + account.getAccountNumber() + ":");
+                }
+                for (AccountEvent event : atm.getBankService().getEventStore().getHistoryProjection()
+                        .getMiniStatement(account.getAccountNumber())) {
+                    if (Console.isEnabled()) {
+                        Console.println("  " + event.getType() + " $" + String.format("%.2f", event.getAmount()));
+                    }
+                }
                 success = true;
                 break;
 
             case WITHDRAWAL:
-                if (!atm.getCashDispenser().canDispense(amount)) {
-                    System.out.println("ATM cannot dispense this amount. Try a different amount.");
-                } else if (account.withdraw(amount)) {
-                    atm.getCashDispenser().dispense(amount);
-                    success = true;
+                phase = Tracing.beginPhase(atm, "canDispense", type);
+                boolean dispensable = atm.getCashDispenser().canDispense(amount);
+                Tracing.endPhase(phase, dispensable);
+                if (!dispensable) {
+                    Console.println("ATM cannot dispense this amount. Try a different amount.");
+                    break;
                 }
+                phase = Tracing.beginPhase(atm, "withdrawAndDispense", type);
+                success = atm.getBankService().withdrawCash(account, atm.getCashDispenser(), amount);
+                Tracing.endPhase(phase, success);
                 break;
 
             case DEPOSIT:
                 atm.getDepositSlot().acceptCash(amount);
-                if (account.deposit(amount)) {
-                    success = true;
+                phase = Tracing.beginPhase(atm, "accountMonitor", type);
+                success = account.deposit(amount);
+                Tracing.endPhase(phase, success);
+                atm.getDepositSlot().reset();
+                break;
+
+            case CHECK_DEPOSIT:
+                Path image = atm.getDepositSlot().getCapturedCheck();
+                if (image == null) {
+                    Console.println("No check inserted.");
+                } else if (atm.getCheckClearingService() == null) {
+                    Console.println("Check deposits are not available at this ATM.");
+                } else {
+                    phase = Tracing.beginPhase(atm, "checkSubmit", type);
+                    success = atm.getCheckClearingService().submit(new CheckDeposit(
+                        transaction.getTransactionId(), account.getAccountNumber(), image, amount));
+                    Tracing.endPhase(phase, success);
+                    if (success) {
+                        // Funds are posted after clearing; the record stays pending until then.
+                        queued = true;
+                    } else {
+                        Console.println("Check processing is busy. Please try again later.");
+                    }
+                }
+                if (!queued && image != null) {
+                    try {
+                        Files.deleteIfExists(image);
+                    } catch (IOException e) {
+                        if (Console.isEnabled()) {
+                            Console.println("Unable to delete check image: " + e.getMessage());
+                        }
+                    }
                 }
                 atm.getDepositSlot().reset();
                 break;
 
             case TRANSFER:
-                BankAccount targetAcc = atm.getBankService().getAccount(targetAccount);
                 if (targetAcc == null) {
-                    System.out.println("Target account not found.");
-                } else if (account.withdraw(amount)) {
-                    targetAcc.deposit(amount);
+                    Console.println("Target account not found.");
+                    break;
+                }
+                phase = Tracing.beginPhase(atm, "accountMonitor", type);
+                boolean debited = atm.getBankService().transfer(account, targetAcc, amount);
+                Tracing.endPhase(phase, debited);
+                if (debited) {
                     success = true;
-                    System.out.println("Transferred $" + String.format("%.2f", amount) +
-                        " to account " + targetAccount);
+                    if (Console.isEnabled()) {
+                        Console.println("Transferred $" + String.format("%.2f", amount) +
+                            " to account " + targetAccount);
+                    }
                 }
                 break;
         }
 
-        transaction.setStatus(success ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
+        transaction.setStatus(queued ? TransactionStatus.PENDING
+            : success ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
+        phase = Tracing.beginPhase(atm, "journal", type);
         atm.addTransaction(transaction);
+        if (requestKey != null) {
+            atm.getIdempotencyCache().putIfAbsent(requestKey, transaction.copy(), now);
+        }
+        Tracing.endPhase(phase, true);
 
         if (success) {
+            phase = Tracing.beginPhase(atm, "receipt", type);
             atm.getReceiptPrinter().printReceipt(transaction, account);
+            Tracing.endPhase(phase, true);
         }
 
         // Ask if user wants another transaction
-        System.out.println("\nWould you like to perform another transaction? (Returning to menu)");
+        Console.println("\nWould you like to perform another transaction? (Returning to menu)");
         atm.setStateHandler(new PinVerifiedStateHandler());
     }
 
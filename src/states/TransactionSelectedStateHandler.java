@@ -1,24 +1,27 @@
 package atmmachine.states;
 
 import atmmachine.ATM;
+import atmmachine.components.Console;
 import atmmachine.enums.TransactionType;
 import atmmachine.models.Card;
 
 public class TransactionSelectedStateHandler implements ATMStateHandler {
     @Override
     public void insertCard(ATM atm, Card card) {
-        System.out.println("Card already inserted.");
+        Console.println("Card already inserted.");
     }
 
     @Override
     public void enterPin(ATM atm, String pin) {
-        System.out.println("PIN already verified.");
+        Console.println("PIN already verified.");
     }
 
     @Override
     public void selectTransaction(ATM atm, TransactionType type) {
         atm.setSelectedTransactionType(type);
-        System.out.println("Changed transaction type to: " + type);
+        if (Console.isEnabled()) {
+            Console.println("Changed transaction type to: " + type);
+        }
     }
 
     @Override
@@ -29,7 +32,7 @@ public class TransactionSelectedStateHandler implements ATMStateHandler {
 
     @Override
     public void cancel(ATM atm) {
-        System.out.println("Transaction cancelled.");
+        Console.println("Transaction cancelled.");
         atm.setStateHandler(new PinVerifiedStateHandler());
     }
 
@@ -0,0 +1,24 @@
+package atmmachine.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(ProcessingPhaseEvent.NAME)
+@Label("ATM Processing Phase")
+@Category({"ATM", "Processing"})
+public class ProcessingPhaseEvent extends jdk.jfr.Event {
+    public static final String NAME = "atmmachine.ProcessingPhase";
+
+    @Label("Terminal")
+    String terminalId;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Transaction Type")
+    String transactionType;
+
+    @Label("Outcome")
+    String outcome;
+}
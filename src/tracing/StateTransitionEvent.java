@@ -0,0 +1,30 @@
+package atmmachine.tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name(StateTransitionEvent.NAME)
+@Label("ATM State Transition")
+@Category({"ATM", "State Machine"})
+public class StateTransitionEvent extends jdk.jfr.Event {
+    public static final String NAME = "atmmachine.StateTransition";
+
+    @Label("Terminal")
+    String terminalId;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("From State")
+    String fromState;
+
+    @Label("To State")
+    String toState;
+
+    @Label("Transaction Type")
+    String transactionType;
+
+    @Label("Outcome")
+    String outcome;
+}
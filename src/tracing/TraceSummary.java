@@ -0,0 +1,66 @@
+package atmmachine.tracing;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Usage: TraceSummary <recording.jfr>
+// Prints per-phase and per-transition latency (microseconds) from a JFR recording.
+public class TraceSummary {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: TraceSummary <recording.jfr>");
+            return;
+        }
+        print(summarize(Paths.get(args[0])));
+    }
+
+    public static Map<String, List<Long>> summarize(Path recording) throws IOException {
+        Map<String, List<Long>> latencies = new TreeMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+            String name = event.getEventType().getName();
+            String key;
+            if (name.equals(ProcessingPhaseEvent.NAME)) {
+                String type = event.getString("transactionType");
+                key = "phase " + event.getString("phase") + " [" + (type == null ? "" : type + ", ")
+                    + event.getString("outcome") + "]";
+            } else if (name.equals(StateTransitionEvent.NAME)) {
+                key = "transition " + event.getString("operation") + " " + event.getString("fromState")
+                    + " -> " + event.getString("toState") + " [" + event.getString("outcome") + "]";
+            } else {
+                continue;
+            }
+            latencies.computeIfAbsent(key, k -> new ArrayList<>()).add(event.getDuration().toNanos() / 1_000);
+        }
+        return latencies;
+    }
+
+    private static void print(Map<String, List<Long>> latencies) {
+        System.out.println(String.format("%-70s %8s %10s %10s %10s %10s",
+            "Span", "Count", "Mean(us)", "p50(us)", "p99(us)", "Max(us)"));
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            List<Long> values = entry.getValue();
+            Collections.sort(values);
+            long total = 0;
+            for (long value : values) {
+                total += value;
+            }
+            System.out.println(String.format("%-70s %8d %10d %10d %10d %10d",
+                entry.getKey(), values.size(), total / values.size(), percentile(values, 50),
+                percentile(values, 99), values.get(values.size() - 1)));
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
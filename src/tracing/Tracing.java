@@ -0,0 +1,79 @@
+package atmmachine.tracing;
+
+import atmmachine.ATM;
+import atmmachine.enums.TransactionType;
+
+// Entry points used by the state machine. When tracing is switched off every call is a
+// single volatile read and a null return; when on, events are only committed if a JFR
+// recording has them enabled.
+public final class Tracing {
+    private static volatile boolean enabled = Boolean.getBoolean("atm.tracing");
+
+    private Tracing() {
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static StateTransitionEvent beginTransition(ATM atm, String operation) {
+        if (!enabled) {
+            return null;
+        }
+        StateTransitionEvent event = new StateTransitionEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.terminalId = atm.getAtmId();
+        event.operation = operation;
+        event.fromState = atm.getStateHandler().getStateName();
+        event.begin();
+        return event;
+    }
+
+    // ok says whether the operation did what was asked, e.g. the PIN was accepted or the
+    // transaction succeeded; the state change alone does not tell.
+    public static void endTransition(StateTransitionEvent event, ATM atm, boolean ok) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.toState = atm.getStateHandler().getStateName();
+            TransactionType type = atm.getSelectedTransactionType();
+            event.transactionType = type == null ? null : type.name();
+            event.outcome = ok ? "OK" : "REJECTED";
+            event.commit();
+        }
+    }
+
+    public static ProcessingPhaseEvent beginPhase(ATM atm, String phase, TransactionType type) {
+        if (!enabled) {
+            return null;
+        }
+        ProcessingPhaseEvent event = new ProcessingPhaseEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.terminalId = atm.getAtmId();
+        event.phase = phase;
+        event.transactionType = type == null ? null : type.name();
+        event.begin();
+        return event;
+    }
+
+    public static void endPhase(ProcessingPhaseEvent event, boolean ok) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = ok ? "OK" : "REJECTED";
+            event.commit();
+        }
+    }
+}